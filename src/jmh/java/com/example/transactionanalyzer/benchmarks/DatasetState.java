@@ -0,0 +1,47 @@
+package com.example.transactionanalyzer.benchmarks;
+
+import com.example.transactionanalyzer.repositories.PartitionGranularity;
+import com.example.transactionanalyzer.repositories.QueryStatistics;
+import com.example.transactionanalyzer.repositories.TransactionColumns;
+import com.example.transactionanalyzer.repositories.TransactionRepository;
+import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
+import com.example.transactionanalyzer.services.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+
+/**
+ * A generated dataset loaded into the columnar repository, shared by all threads of a trial.
+ * {@code category} picks a dense (Groceries) or a sparse (Travel) slice of the skewed data,
+ * and queries cover the last year of it. {@code partitions} compares one segment with monthly
+ * partitions.
+ */
+@State(Scope.Benchmark)
+public class DatasetState {
+
+    static final long SEED = 42;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"Groceries", "Travel"})
+    public String category;
+
+    @Param({"NONE", "MONTH"})
+    public PartitionGranularity partitions;
+
+    public final LocalDate startDate = TransactionDataGenerator.LAST_DAY.minusYears(1).plusDays(1);
+    public final LocalDate endDate = TransactionDataGenerator.LAST_DAY;
+    public final int year = TransactionDataGenerator.LAST_DAY.getYear();
+
+    public TransactionRepository repository;
+    public TransactionService service;
+
+    @Setup(Level.Trial)
+    public void load() {
+        TransactionColumns.Builder columns = new TransactionColumns.Builder(size);
+        TransactionDataGenerator.generate(size, SEED, columns::add);
+        repository = new TransactionRepositoryImpl(columns.build(partitions), new QueryStatistics(), partitions);
+        service = new TransactionService(repository);
+    }
+}
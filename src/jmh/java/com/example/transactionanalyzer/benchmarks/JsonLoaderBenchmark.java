@@ -0,0 +1,63 @@
+package com.example.transactionanalyzer.benchmarks;
+
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.repositories.TransactionColumns;
+import com.example.transactionanalyzer.utils.JsonLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a generated JSON data file: into a list of transactions, streamed into columns, and
+ * streamed into columns on all cores, which is what the application does at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JsonLoaderBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("transactions-benchmark", ".json");
+        TransactionDataGenerator.writeJson(file, size, DatasetState.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<Transaction> loadIntoList() {
+        return JsonLoader.loadTransactionsFromJson(file.toString());
+    }
+
+    @Benchmark
+    public TransactionColumns streamIntoColumns() {
+        TransactionColumns.Builder columns = new TransactionColumns.Builder();
+        JsonLoader.streamTransactionsFromJson(file.toString(), columns::add);
+        return columns.build();
+    }
+
+    @Benchmark
+    public TransactionColumns streamIntoColumnsInParallel() {
+        List<TransactionColumns.Builder> chunks = JsonLoader.streamTransactionsFromJsonInParallel(
+                file.toString(), Runtime.getRuntime().availableProcessors(), TransactionColumns.Builder::new);
+        TransactionColumns.Builder columns = new TransactionColumns.Builder(
+                chunks.stream().mapToInt(TransactionColumns.Builder::size).sum());
+        chunks.forEach(columns::addAll);
+        return columns.build();
+    }
+}
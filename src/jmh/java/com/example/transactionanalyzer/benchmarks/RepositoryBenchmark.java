@@ -0,0 +1,68 @@
+package com.example.transactionanalyzer.benchmarks;
+
+import com.example.transactionanalyzer.model.Transaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter and ordering paths of {@code TransactionFilterQuery}. Results are read in full, since
+ * {@code getTransactions()} materializes rows lazily.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryBenchmark {
+
+    @Benchmark
+    public int countByCategoryAndDateRange(DatasetState dataset) {
+        return dataset.repository.filterQuery()
+                .byCategory(dataset.category)
+                .byDateRange(dataset.startDate, dataset.endDate)
+                .count();
+    }
+
+    @Benchmark
+    public void readByCategoryAndDateRange(DatasetState dataset, Blackhole blackhole) {
+        for (Transaction transaction : dataset.repository.filterQuery()
+                .byCategory(dataset.category)
+                .byDateRange(dataset.startDate, dataset.endDate)
+                .getTransactions()) {
+            blackhole.consume(transaction);
+        }
+    }
+
+    @Benchmark
+    public void readByCategorySortedByLatest(DatasetState dataset, Blackhole blackhole) {
+        for (Transaction transaction : dataset.repository.filterQuery()
+                .byCategory(dataset.category)
+                .sortByLatest()
+                .getTransactions()) {
+            blackhole.consume(transaction);
+        }
+    }
+
+    @Benchmark
+    public void readByVendorSortedByLatest(DatasetState dataset, Blackhole blackhole) {
+        for (Transaction transaction : dataset.repository.filterQuery()
+                .byVendor("Tesco")
+                .sortByLatest()
+                .getTransactions()) {
+            blackhole.consume(transaction);
+        }
+    }
+
+    @Benchmark
+    public void readByVendorAndAmountRange(DatasetState dataset, Blackhole blackhole) {
+        for (Transaction transaction : dataset.repository.filterQuery()
+                .byVendor("Airbnb")
+                .byAmountRange(500.0, null)
+                .byDateRange(dataset.startDate, dataset.endDate)
+                .getTransactions()) {
+            blackhole.consume(transaction);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.transactionanalyzer.benchmarks;
+
+import com.example.transactionanalyzer.repositories.AmountAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest contention: every thread adds to the same two accumulators, once through the striped
+ * {@link AmountAccumulator} and once through a single-cell accumulator keeping the same values
+ * under one lock. Run with {@code -t} set to the number of writer threads to compare, e.g.
+ * {@code -t 1}, {@code -t 8}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class RunningTotalsBenchmark {
+
+    private static final int DAY = Math.toIntExact(TransactionDataGenerator.LAST_DAY.toEpochDay());
+
+    private final AmountAccumulator[] striped = {new AmountAccumulator(), new AmountAccumulator()};
+    private final LockedAccumulator[] locked = {new LockedAccumulator(), new LockedAccumulator()};
+
+    @Benchmark
+    public void stripedAdd() {
+        striped[ThreadLocalRandom.current().nextInt(striped.length)].add(12.5, DAY);
+    }
+
+    @Benchmark
+    public void lockedAdd() {
+        locked[ThreadLocalRandom.current().nextInt(locked.length)].add(12.5, DAY);
+    }
+
+    /**
+     * Count, compensated sum, extremes and date span in plain fields of one object, every add
+     * holding its monitor.
+     */
+    private static final class LockedAccumulator {
+
+        private long count;
+        private double sum;
+        private double compensation;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int firstDay = Integer.MAX_VALUE;
+        private int lastDay = Integer.MIN_VALUE;
+
+        synchronized void add(double amount, int epochDay) {
+            count++;
+            double term = amount - compensation;
+            double next = sum + term;
+            compensation = (next - sum) - term;
+            sum = next;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+            firstDay = Math.min(firstDay, epochDay);
+            lastDay = Math.max(lastDay, epochDay);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.transactionanalyzer.benchmarks;
+
+import com.example.transactionanalyzer.config.BinaryEncodingConfig;
+import com.example.transactionanalyzer.dto.CategoryTransactionsDTO;
+import com.example.transactionanalyzer.dto.MonthlyAverageDTO;
+import com.example.transactionanalyzer.repositories.TransactionColumns;
+import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
+import com.example.transactionanalyzer.services.TransactionService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Writing responses in each encoding the API offers: the full listing of the largest category
+ * and a monthly average. The payload size of each response is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerializationBenchmark {
+
+    public enum Encoding {
+        JSON(JsonFactory::new),
+        CBOR(CBORFactory::new),
+        SMILE(BinaryEncodingConfig::smileFactory);
+
+        private final Supplier<JsonFactory> factory;
+
+        Encoding(Supplier<JsonFactory> factory) {
+            this.factory = factory;
+        }
+    }
+
+    private static final String CATEGORY = "Groceries";
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public Encoding encoding;
+
+    private ObjectMapper objectMapper;
+    private CategoryTransactionsDTO listing;
+    private MonthlyAverageDTO monthlyAverage;
+
+    @Setup(Level.Trial)
+    public void load() throws JsonProcessingException {
+        TransactionColumns.Builder columns = new TransactionColumns.Builder(size);
+        TransactionDataGenerator.generate(size, DatasetState.SEED, columns::add);
+        TransactionService service = new TransactionService(new TransactionRepositoryImpl(columns.build()));
+        // Materialized once, so only the encoding is measured.
+        listing = new CategoryTransactionsDTO(CATEGORY, new ArrayList<>(service.getTransactionsByCategory(CATEGORY).getTransactions()));
+        monthlyAverage = service.getMonthlyAverageSpendForCategory(CATEGORY,
+                TransactionDataGenerator.LAST_DAY.withDayOfYear(1), TransactionDataGenerator.LAST_DAY);
+        // Configured like the application's mapper.
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .factory(encoding.factory.get())
+                .build();
+        System.out.printf("%n%s: %d transactions in %d bytes, monthly average in %d bytes%n", encoding,
+                listing.getTransactions().size(), categoryListing().length, monthlyAverage().length);
+    }
+
+    @Benchmark
+    public byte[] categoryListing() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public byte[] monthlyAverage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(monthlyAverage);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.transactionanalyzer.benchmarks;
+
+import com.example.transactionanalyzer.dto.*;
+import com.example.transactionanalyzer.model.Transaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every aggregate of {@code TransactionService}, uncached, over the last year of a category.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServiceBenchmark {
+
+    private static final List<Double> PERCENTILES = List.of(50.0, 90.0, 99.0);
+
+    @Benchmark
+    public CategoryTotalDTO total(DatasetState dataset) {
+        return dataset.service.getTotalOutgoingForCategory(dataset.category, dataset.startDate, dataset.endDate);
+    }
+
+    @Benchmark
+    public MaxAmountDTO max(DatasetState dataset) {
+        return dataset.service.getMaxAmountForCategory(dataset.category, dataset.startDate, dataset.endDate);
+    }
+
+    @Benchmark
+    public MinAmountDTO min(DatasetState dataset) {
+        return dataset.service.getMinAmountForCategory(dataset.category, dataset.startDate, dataset.endDate);
+    }
+
+    @Benchmark
+    public MonthlyAverageDTO monthlyAverage(DatasetState dataset) {
+        return dataset.service.getMonthlyAverageSpendForCategory(dataset.category, dataset.startDate, dataset.endDate);
+    }
+
+    @Benchmark
+    public CategorySummaryDTO summary(DatasetState dataset) {
+        return dataset.service.getSummaryForCategory(dataset.category, dataset.startDate, dataset.endDate);
+    }
+
+    @Benchmark
+    public TopTransactionsDTO top(DatasetState dataset) {
+        return dataset.service.getTopTransactionsForCategory(dataset.category, dataset.startDate, dataset.endDate, 10);
+    }
+
+    @Benchmark
+    public PercentilesDTO percentiles(DatasetState dataset) {
+        return dataset.service.getPercentilesForCategory(dataset.category, dataset.startDate, dataset.endDate, PERCENTILES);
+    }
+
+    /**
+     * The DTO's list is a lazy view, so every transaction is read here as serialization would.
+     */
+    @Benchmark
+    public void transactionsByCategory(DatasetState dataset, Blackhole blackhole) {
+        for (Transaction transaction : dataset.service.getTransactionsByCategory(dataset.category).getTransactions()) {
+            blackhole.consume(transaction);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.transactionanalyzer.benchmarks;
+
+import com.example.transactionanalyzer.model.Transaction;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic synthetic transactions shaped like a personal ledger: a few categories such as
+ * groceries account for most rows (Zipf-distributed), recent months are busier than old ones,
+ * each category has its own vendors and products, and amounts are log-normal around a
+ * per-category typical value.
+ */
+public class TransactionDataGenerator {
+
+    public static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+    public static final LocalDate LAST_DAY = LocalDate.of(2024, 12, 31);
+
+    private static final List<CategoryProfile> CATEGORIES = List.of(
+            new CategoryProfile("Groceries", 35, List.of("Tesco", "Morrisons", "Sainsbury's", "Aldi", "Lidl"),
+                    List.of("Groceries", "Bread", "Milk", "Fruit")),
+            new CategoryProfile("Dining", 25, List.of("Pret", "Nando's", "Wagamama", "Greggs"),
+                    List.of("Lunch", "Dinner", "Coffee")),
+            new CategoryProfile("Transport", 12, List.of("TfL", "Trainline", "Uber", "Shell"),
+                    List.of("Travel Card", "Train Ticket", "Taxi", "Fuel")),
+            new CategoryProfile("Entertainment", 20, List.of("Netflix", "Spotify", "Odeon", "Steam"),
+                    List.of("Subscription", "Cinema", "Games")),
+            new CategoryProfile("Utilities", 60, List.of("British Gas", "Thames Water", "EE", "Octopus"),
+                    List.of("Gas", "Water", "Mobile", "Electricity")),
+            new CategoryProfile("Fitness", 25, List.of("PureGym", "Decathlon"),
+                    List.of("Gym Membership", "Equipment")),
+            new CategoryProfile("Rent", 700, List.of("Landlord"), List.of("Rent Payment")),
+            new CategoryProfile("Travel", 150, List.of("British Airways", "Airbnb", "Booking.com"),
+                    List.of("Flight", "Accommodation")));
+
+    private static final double[] CATEGORY_WEIGHTS = zipfCumulativeWeights(CATEGORIES.size());
+
+    private TransactionDataGenerator() {
+    }
+
+    public static List<String> categories() {
+        return CATEGORIES.stream().map(CategoryProfile::name).toList();
+    }
+
+    /**
+     * Hands {@code count} transactions to {@code sink}, the same ones for the same seed.
+     */
+    public static void generate(int count, long seed, Consumer<Transaction> sink) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long days = LAST_DAY.toEpochDay() - FIRST_DAY.toEpochDay() + 1;
+        for (int i = 0; i < count; i++) {
+            CategoryProfile category = CATEGORIES.get(pickCategory(random.nextDouble()));
+            // The square root of a uniform variable skews dates linearly towards LAST_DAY.
+            long dayOffset = (long) (Math.sqrt(random.nextDouble()) * days);
+            double amount = category.typicalAmount() * Math.exp(0.5 * gaussian(random));
+
+            Transaction transaction = new Transaction();
+            transaction.setDate(FIRST_DAY.plusDays(Math.min(dayOffset, days - 1)));
+            transaction.setCategory(category.name());
+            transaction.setVendor(category.vendors().get(random.nextInt(category.vendors().size())));
+            transaction.setProduct(category.products().get(random.nextInt(category.products().size())));
+            transaction.setAmount(Math.round(amount * 100) / 100.0);
+            sink.accept(transaction);
+        }
+    }
+
+    /**
+     * Writes {@code count} generated transactions to {@code file} as a JSON array in the format
+     * of the application's data file.
+     */
+    public static void writeJson(Path file, int count, long seed) {
+        try (JsonGenerator json = new JsonFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            generate(count, seed, transaction -> {
+                try {
+                    json.writeStartObject();
+                    json.writeStringField("date", transaction.getDate().toString());
+                    json.writeStringField("vendor", transaction.getVendor());
+                    json.writeStringField("product", transaction.getProduct());
+                    json.writeNumberField("amount", transaction.getAmount());
+                    json.writeStringField("category", transaction.getCategory());
+                    json.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int pickCategory(double uniform) {
+        for (int i = 0; i < CATEGORY_WEIGHTS.length - 1; i++) {
+            if (uniform < CATEGORY_WEIGHTS[i]) {
+                return i;
+            }
+        }
+        return CATEGORY_WEIGHTS.length - 1;
+    }
+
+    private static double[] zipfCumulativeWeights(int size) {
+        double[] weights = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += 1.0 / (i + 1);
+            weights[i] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            weights[i] /= total;
+        }
+        return weights;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17.
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private record CategoryProfile(String name, double typicalAmount, List<String> vendors, List<String> products) {
+    }
+}
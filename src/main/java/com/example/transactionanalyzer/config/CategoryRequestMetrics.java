@@ -0,0 +1,53 @@
+package com.example.transactionanalyzer.config;
+
+import com.example.transactionanalyzer.repositories.TransactionRepository;
+import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Counts requests per category and endpoint as {@code transactions.category.requests}, to find
+ * hot categories. Categories that are not in the dataset share the tag {@code unknown} so a
+ * client cannot create a time series per path it makes up.
+ */
+public class CategoryRequestMetrics implements HandlerInterceptor {
+
+    static final String UNKNOWN_CATEGORY = "unknown";
+
+    private final MeterRegistry registry;
+    private final TransactionRepository transactionRepository;
+
+    public CategoryRequestMetrics(MeterRegistry registry, TransactionRepository transactionRepository) {
+        this.registry = registry;
+        this.transactionRepository = transactionRepository;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("category") instanceof String category) {
+            String normalized = TransactionRepositoryImpl.normalizeCategory(category);
+            Counter.builder("transactions.category.requests")
+                    .description("Requests for a category's transactions or aggregates")
+                    .tag("category", isKnown(normalized) ? normalized : UNKNOWN_CATEGORY)
+                    .tag("uri", String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)))
+                    .register(registry)
+                    .increment();
+        }
+        return true;
+    }
+
+    /**
+     * Looked up in the running totals, which hold every category of the dataset in one map,
+     * rather than in {@code categories()}, which merges the category sets of all segments.
+     */
+    private boolean isKnown(String category) {
+        return transactionRepository.runningTotals().category(category) != null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.transactionanalyzer.config;
+
+import com.example.transactionanalyzer.repositories.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<TransactionRepository> transactionRepository;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<TransactionRepository> transactionRepository) {
+        this.meterRegistry = meterRegistry;
+        this.transactionRepository = transactionRepository;
+    }
+
+    /**
+     * Registered only when both are available, which is not the case in web slice tests.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        MeterRegistry meters = meterRegistry.getIfAvailable();
+        TransactionRepository repository = transactionRepository.getIfAvailable();
+        if (meters != null && repository != null) {
+            registry.addInterceptor(new CategoryRequestMetrics(meters, repository))
+                    .addPathPatterns("/api/transactions/categories/**");
+        }
+    }
+}
@@ -1,35 +1,210 @@
 package com.example.transactionanalyzer.config;
 
-import com.example.transactionanalyzer.model.Transaction;
-
+import com.example.transactionanalyzer.repositories.PartitionGranularity;
+import com.example.transactionanalyzer.repositories.QueryStatistics;
+import com.example.transactionanalyzer.repositories.ReloadableTransactionRepository;
+import com.example.transactionanalyzer.repositories.TransactionColumns;
 import com.example.transactionanalyzer.repositories.TransactionRepository;
 import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
+import com.example.transactionanalyzer.repositories.TransactionSnapshot;
+import com.example.transactionanalyzer.services.AggregateCache;
+import com.example.transactionanalyzer.services.BatchAggregationService;
 import com.example.transactionanalyzer.services.TransactionService;
 import com.example.transactionanalyzer.utils.JsonLoader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class TransactionConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionConfig.class);
+
+    public enum TransactionSource { JSON, SNAPSHOT }
+
     @Value("${transactions.json.path}")
     private String transactionsJsonPath;
 
+    @Value("${transactions.source:json}")
+    private TransactionSource transactionsSource;
+
+    @Value("${transactions.snapshot.path:transactions.snapshot}")
+    private String transactionsSnapshotPath;
+
+    @Value("${transactions.load.parallelism:1}")
+    private int loadParallelism;
+
+    @Value("${transactions.partition.granularity:month}")
+    private PartitionGranularity partitionGranularity;
+
+    @Value("${transactions.reload.poll-interval:0s}")
+    private Duration reloadPollInterval;
+
+    @Value("${transactions.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${transactions.cache.ttl:10m}")
+    private Duration cacheTimeToLive;
+
+    @Value("${transactions.cache.operations:total,max,min,monthly-average,summary}")
+    private Set<AggregateCache.Operation> cachedOperations;
+
+    @Value("${transactions.batch.parallelism:0}")
+    private int batchParallelism;
+
+    @Value("${transactions.batch.max-queries:1000}")
+    private int batchMaxQueries;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public QueryStatistics queryStatistics() {
+        return new QueryStatistics();
+    }
+
+    @Bean
+    public ReloadableTransactionRepository transactionRepository(QueryStatistics queryStatistics) {
+        if (virtualThreads) {
+            return new ReloadableTransactionRepository(() -> loadRepository(queryStatistics),
+                    Paths.get(transactionsJsonPath), reloadPollInterval, Thread.ofVirtual().name("transactions-reload").factory());
+        }
+        return new ReloadableTransactionRepository(() -> loadRepository(queryStatistics),
+                Paths.get(transactionsJsonPath), reloadPollInterval);
+    }
+
     @Bean
-    public List<Transaction> transactions() {
-        return JsonLoader.loadTransactionsFromJson(transactionsJsonPath);
+    public MeterBinder transactionDatasetMetrics(ReloadableTransactionRepository transactionRepository) {
+        return registry -> {
+            Gauge.builder("transactions.dataset.size", transactionRepository, repository -> repository.filterQuery().count())
+                    .description("Transactions in the current dataset, including appended ones")
+                    .register(registry);
+            TimeGauge.builder("transactions.load.duration", transactionRepository, TimeUnit.MILLISECONDS,
+                            repository -> repository.getLoadDuration().toMillis())
+                    .description("Time taken to load the current dataset at startup or on the last reload")
+                    .register(registry);
+            FunctionCounter.builder("transactions.reload.count", transactionRepository, ReloadableTransactionRepository::getReloadCount)
+                    .description("Successful reloads of the transaction dataset")
+                    .register(registry);
+            FunctionCounter.builder("transactions.reload.failures", transactionRepository, ReloadableTransactionRepository::getReloadFailures)
+                    .description("Reloads of the transaction dataset that failed")
+                    .register(registry);
+            TimeGauge.builder("transactions.reload.duration", transactionRepository, TimeUnit.MILLISECONDS,
+                            repository -> repository.getLastReloadDuration().toMillis())
+                    .description("Time taken by the last successful reload")
+                    .register(registry);
+        };
     }
 
     @Bean
-    public TransactionRepository transactionRepository(List<Transaction> transactions) {
-        return new TransactionRepositoryImpl(transactions);
+    public MeterBinder transactionQueryMetrics(QueryStatistics queryStatistics) {
+        return registry -> {
+            FunctionCounter.builder("transactions.query.count", queryStatistics, QueryStatistics::getQueries)
+                    .description("Evaluated transaction queries")
+                    .register(registry);
+            FunctionCounter.builder("transactions.query.rows.scanned", queryStatistics, QueryStatistics::getRowsScanned)
+                    .description("Rows read one by one by transaction queries, excluding rows answered from an index")
+                    .register(registry);
+            FunctionCounter.builder("transactions.query.rows.matched", queryStatistics, QueryStatistics::getRowsMatched)
+                    .description("Rows matched by transaction queries")
+                    .register(registry);
+        };
     }
 
     @Bean
-    public TransactionService transactionService(TransactionRepository transactionRepository) {
-        return new TransactionService(transactionRepository);
+    public AggregateCache aggregateCache() {
+        return new AggregateCache(cacheMaximumSize, cacheTimeToLive, cachedOperations);
+    }
+
+    @Bean
+    public MeterBinder aggregateCacheMetrics(AggregateCache aggregateCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, aggregateCache.nativeCache(), "transactions.aggregates");
+    }
+
+    @Bean
+    public TransactionService transactionService(TransactionRepository transactionRepository, AggregateCache aggregateCache) {
+        return new TransactionService(transactionRepository, aggregateCache);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool batchAggregationPool() {
+        return new ForkJoinPool(batchParallelism > 0 ? batchParallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public BatchAggregationService batchAggregationService(TransactionRepository transactionRepository, ForkJoinPool batchAggregationPool) {
+        return new BatchAggregationService(transactionRepository, batchAggregationPool, batchMaxQueries);
+    }
+
+    private TransactionRepository loadRepository(QueryStatistics queryStatistics) {
+        if (transactionsSource == TransactionSource.SNAPSHOT) {
+            return new TransactionRepositoryImpl(loadColumnsFromSnapshot(), queryStatistics, partitionGranularity);
+        }
+        return new TransactionRepositoryImpl(loadColumnsFromJson(), queryStatistics, partitionGranularity);
+    }
+
+    private TransactionColumns loadColumnsFromJson() {
+        if (loadParallelism <= 1) {
+            TransactionColumns.Builder columns = new TransactionColumns.Builder();
+            JsonLoader.streamTransactionsFromJson(transactionsJsonPath, columns::add);
+            return columns.build(partitionGranularity);
+        }
+        List<TransactionColumns.Builder> chunks = parseInParallel();
+        TransactionColumns.Builder columns = new TransactionColumns.Builder(
+                chunks.stream().mapToInt(TransactionColumns.Builder::size).sum());
+        for (int i = 0; i < chunks.size(); i++) {
+            columns.addAll(chunks.set(i, null));
+        }
+        return columns.build(partitionGranularity);
+    }
+
+    private List<TransactionColumns.Builder> parseInParallel() {
+        if (virtualThreads) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                return JsonLoader.streamTransactionsFromJsonInParallel(
+                        transactionsJsonPath, loadParallelism, executor, TransactionColumns.Builder::new);
+            }
+        }
+        return JsonLoader.streamTransactionsFromJsonInParallel(
+                transactionsJsonPath, loadParallelism, TransactionColumns.Builder::new);
+    }
+
+    /**
+     * Maps the snapshot when it is current for the JSON file. Otherwise loads the JSON and
+     * writes a fresh snapshot for the next start.
+     */
+    private TransactionColumns loadColumnsFromSnapshot() {
+        Path snapshotFile = Paths.get(transactionsSnapshotPath);
+        try {
+            TransactionSnapshot snapshot = TransactionSnapshot.of(Paths.get(transactionsJsonPath), partitionGranularity);
+            if (snapshot.isCurrent(snapshotFile)) {
+                return TransactionSnapshot.open(snapshotFile);
+            }
+            log.info("Snapshot {} is missing or stale, loading {}", snapshotFile, transactionsJsonPath);
+            TransactionColumns columns = loadColumnsFromJson();
+            snapshot.write(columns, snapshotFile);
+            return columns;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load transactions snapshot", e);
+        }
     }
 }
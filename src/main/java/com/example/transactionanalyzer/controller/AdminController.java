@@ -0,0 +1,75 @@
+package com.example.transactionanalyzer.controller;
+
+import com.example.transactionanalyzer.dto.QueryPlanDTO;
+import com.example.transactionanalyzer.dto.ReloadStatusDTO;
+import com.example.transactionanalyzer.exceptions.DatasetReloadException;
+import com.example.transactionanalyzer.exceptions.InvalidDateRangeException;
+import com.example.transactionanalyzer.exceptions.InvalidQueryException;
+import com.example.transactionanalyzer.repositories.ReloadableTransactionRepository;
+import com.example.transactionanalyzer.services.TransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+import static com.example.transactionanalyzer.utils.ErrorMessages.INVALID_DATE_RANGE;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final ReloadableTransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+
+    @Autowired
+    public AdminController(ReloadableTransactionRepository transactionRepository, TransactionService transactionService) {
+        this.transactionRepository = transactionRepository;
+        this.transactionService = transactionService;
+    }
+
+    @Operation(summary = "Reload the transaction dataset",
+            description = "Rebuilds the dataset and its indexes from the configured source and swaps it in atomically. "
+                    + "Requests already running finish on the previous dataset. If the reload fails, a 500 error is returned "
+                    + "and the previous dataset stays in place.")
+    @PostMapping("/reload")
+    public ReloadStatusDTO reloadTransactions() throws DatasetReloadException {
+        transactionRepository.reload();
+        return new ReloadStatusDTO(
+                transactionRepository.getReloadCount(),
+                transactionRepository.getLastReloadDuration().toMillis(),
+                transactionRepository.filterQuery().count());
+    }
+
+    @Operation(summary = "Explain how a transaction query is evaluated",
+            description = "Plans the query described by the optional filters and returns its steps in order: which indexes narrow it and how their posting bitmaps are "
+                    + "intersected, which predicates are evaluated in a single scan and whether sorting is needed, each with the estimated and actual "
+                    + "number of rows it leaves, summed over all segments of the dataset.")
+    @GetMapping("/explain")
+    public QueryPlanDTO explainQuery(
+            @Parameter(description = "Only include this category")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Only include this vendor")
+            @RequestParam(required = false) String vendor,
+            @Parameter(description = "Only include this product")
+            @RequestParam(required = false) String product,
+            @Parameter(description = "Only include transactions of at least this amount")
+            @RequestParam(required = false) Double minAmount,
+            @Parameter(description = "Only include transactions of at most this amount")
+            @RequestParam(required = false) Double maxAmount,
+            @Parameter(description = "Only include transactions on or after this date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Only include transactions on or before this date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Order the result latest first (default: false)")
+            @RequestParam(required = false, defaultValue = "false") boolean latestFirst
+    ) throws InvalidQueryException, InvalidDateRangeException {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidDateRangeException(INVALID_DATE_RANGE);
+        }
+        return transactionService.explainQuery(category, vendor, product, minAmount, maxAmount, startDate, endDate, latestFirst);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.transactionanalyzer.controller;
+
+import com.example.transactionanalyzer.dto.*;
+import com.example.transactionanalyzer.exceptions.CategoryNotFoundException;
+import com.example.transactionanalyzer.exceptions.InvalidDateRangeException;
+import com.example.transactionanalyzer.exceptions.UnableToCalculateException;
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.services.TransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+
+import static com.example.transactionanalyzer.utils.ErrorMessages.INVALID_DATE_RANGE;
+
+/**
+ * Reactive variant of {@link TransactionController} over the same {@link TransactionService}.
+ * The category listing is a {@link Flux} written as newline-delimited JSON: each transaction is
+ * only read from the repository once the client has taken the previous one, so a slow consumer
+ * holds back the query instead of the whole result being buffered. Aggregates are thin
+ * {@link Mono}s around the same service calls, for clients that consume the API as publishers.
+ * <p>
+ * The application runs on Spring MVC with reactor-core, not on WebFlux and Netty. Publishers are
+ * subscribed through servlet async requests and still do blocking work and I/O on container
+ * threads, so the usual reactive argument of serving many connections from a few event-loop
+ * threads does not apply here. Validation errors and unknown categories fail before the
+ * response starts, with the usual JSON error body.
+ */
+@RestController
+@RequestMapping("/api/reactive/transactions")
+public class ReactiveTransactionController {
+
+    private final TransactionService transactionService;
+
+    @Autowired
+    public ReactiveTransactionController(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    @Operation(summary = "Stream all transactions for a given category",
+            description = "Emits the transactions of the specified category, latest first, as newline-delimited JSON, "
+                    + "reading each one only when the client is ready for it. If the category doesn't exist, a 404 error will be returned.")
+    @GetMapping(value = "/categories/{category}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> getTransactionsByCategory(
+            @Parameter(description = "The category to filter transactions")
+            @PathVariable String category
+    ) throws CategoryNotFoundException {
+        Iterator<Transaction> transactions = transactionService.streamTransactionsByCategory(category);
+        return Flux.fromIterable(() -> transactions);
+    }
+
+    @Operation(summary = "Get total outgoing for a category within a date range",
+            description = "Calculates the total outgoing amount for the specified category between the given start and end dates. "
+                    + "If no date range is provided, the calculation will include all transactions for the category since 1970.")
+    @GetMapping("/categories/{category}/total")
+    public Mono<CategoryTotalDTO> getTotalOutgoingForCategory(
+            @Parameter(description = "The category to analyze")
+            @PathVariable String category,
+            @Parameter(description = "The start date for the calculation (default: 1970-01-01)")
+            @RequestParam(required = false, defaultValue = "1970-01-01") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "The end date for the calculation (default: today)")
+            @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now().toString()}") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws UnableToCalculateException, InvalidDateRangeException {
+        validateDateRange(startDate, endDate);
+        return Mono.fromCallable(() -> transactionService.getTotalOutgoingForCategory(category, startDate, endDate));
+    }
+
+    @Operation(summary = "Get a summary of a category within a date range",
+            description = "Returns the count, total, minimum, maximum and average amount, and the average per month, "
+                    + "for the specified category between the given start and end dates. "
+                    + "If no date range is provided, all transactions for the category since 1970 are included.")
+    @GetMapping("/categories/{category}/summary")
+    public Mono<CategorySummaryDTO> getSummaryForCategory(
+            @Parameter(description = "The category to analyze")
+            @PathVariable String category,
+            @Parameter(description = "The start date for the calculation (default: 1970-01-01)")
+            @RequestParam(required = false, defaultValue = "1970-01-01") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "The end date for the calculation (default: today)")
+            @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now().toString()}") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws UnableToCalculateException, InvalidDateRangeException {
+        validateDateRange(startDate, endDate);
+        return Mono.fromCallable(() -> transactionService.getSummaryForCategory(category, startDate, endDate));
+    }
+
+    @Operation(summary = "Get monthly average spend for a category over a year",
+            description = "Calculates the monthly average spend for the specified category in the given year.")
+    @GetMapping("/categories/{category}/monthly-average/{year}")
+    public Mono<MonthlyAverageDTO> getMonthlyAverageSpendForCategory(
+            @Parameter(description = "The category to analyze") @PathVariable String category,
+            @Parameter(description = "The year for which to calculate monthly averages") @PathVariable int year
+    ) throws UnableToCalculateException {
+        return Mono.fromCallable(() -> transactionService.getMonthlyAverageSpendForCategory(
+                category, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)));
+    }
+
+    @Operation(summary = "Get maximum spend for a category within a date range",
+            description = "Finds the highest single spend transaction for the specified category between the given start and end dates. "
+                    + "If no dates are provided, all transactions for the category since 1970 will be considered.")
+    @GetMapping("/categories/{category}/max")
+    public Mono<MaxAmountDTO> getMaxAmountForCategory(
+            @Parameter(description = "The category to analyze") @PathVariable String category,
+            @Parameter(description = "The start date for the calculation (default: 1970-01-01)")
+            @RequestParam(required = false, defaultValue = "1970-01-01") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "The end date for the calculation (default: today)")
+            @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now().toString()}") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws UnableToCalculateException, InvalidDateRangeException {
+        validateDateRange(startDate, endDate);
+        return Mono.fromCallable(() -> transactionService.getMaxAmountForCategory(category, startDate, endDate));
+    }
+
+    @Operation(summary = "Get minimum spend for a category within a date range",
+            description = "Finds the lowest single spend transaction for the specified category between the given start and end dates. "
+                    + "If no dates are provided, all transactions for the category since 1970 will be considered.")
+    @GetMapping("/categories/{category}/min")
+    public Mono<MinAmountDTO> getMinAmountForCategory(
+            @Parameter(description = "The category to analyze") @PathVariable String category,
+            @Parameter(description = "The start date for the calculation (default: 1970-01-01)")
+            @RequestParam(required = false, defaultValue = "1970-01-01") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "The end date for the calculation (default: today)")
+            @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now().toString()}") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws UnableToCalculateException, InvalidDateRangeException {
+        validateDateRange(startDate, endDate);
+        return Mono.fromCallable(() -> transactionService.getMinAmountForCategory(category, startDate, endDate));
+    }
+
+    private void validateDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new InvalidDateRangeException(INVALID_DATE_RANGE);
+        }
+    }
+}
@@ -2,29 +2,135 @@ package com.example.transactionanalyzer.controller;
 
 import com.example.transactionanalyzer.dto.*;
 import com.example.transactionanalyzer.exceptions.CategoryNotFoundException;
+import com.example.transactionanalyzer.exceptions.InvalidBatchRequestException;
 import com.example.transactionanalyzer.exceptions.InvalidDateRangeException;
+import com.example.transactionanalyzer.exceptions.InvalidQueryException;
+import com.example.transactionanalyzer.exceptions.InvalidTransactionException;
 import com.example.transactionanalyzer.exceptions.UnableToCalculateException;
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.services.BatchAggregationService;
 import com.example.transactionanalyzer.services.TransactionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
 
 import static com.example.transactionanalyzer.utils.ErrorMessages.INVALID_DATE_RANGE;
 
+/**
+ * Responses are JSON by default. Clients sending {@code Accept: application/cbor} or
+ * {@code Accept: application/x-jackson-smile} get the same documents in that binary encoding,
+ * which is smaller and cheaper to write for large listings. Errors are always JSON.
+ */
 @RestController
-@RequestMapping("/api/transactions")
+@RequestMapping(value = "/api/transactions",
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, TransactionController.APPLICATION_SMILE})
 public class TransactionController {
 
+    static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final TransactionService transactionService;
+    private final BatchAggregationService batchAggregationService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, BatchAggregationService batchAggregationService,
+                                 ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.batchAggregationService = batchAggregationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(summary = "Append transactions",
+            description = "Adds a batch of transactions to the dataset. They are visible to every query started after the call returns. "
+                    + "Every transaction needs a date, category, vendor and product, otherwise the whole batch is rejected with a 400 error.")
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public IngestResultDTO appendTransactions(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "The transactions to append")
+            @RequestBody List<Transaction> transactions
+    ) throws InvalidTransactionException {
+        return transactionService.appendTransactions(transactions);
+    }
+
+    @Operation(summary = "Evaluate many aggregations in one request",
+            description = "Evaluates a list of (category, startDate, endDate, metric) queries in parallel and returns the results in request order. "
+                    + "Metrics are total, min, max, average and count. Missing dates default to 1970-01-01 and today. "
+                    + "With groupByCategory, every query is evaluated for every category and its category is ignored. "
+                    + "A query without matching transactions returns a count of 0 and no value.")
+    @PostMapping("/aggregations")
+    public BatchAggregationResultDTO aggregate(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "The queries to evaluate")
+            @RequestBody BatchAggregationRequestDTO request
+    ) throws InvalidBatchRequestException {
+        return batchAggregationService.aggregate(request);
+    }
+
+    @Operation(summary = "Group transactions and aggregate each group",
+            description = "Groups the transactions matching the optional filters by any combination of category, vendor, product, "
+                    + "day, week, month and year, and returns total, min, max, average and count per group, or only the requested metrics. "
+                    + "Strings are grouped ignoring case. Groups are sorted by their key.")
+    @GetMapping("/group-by")
+    public GroupByResultDTO groupBy(
+            @Parameter(description = "Dimensions to group by, e.g. category,month")
+            @RequestParam(required = false, defaultValue = "") List<String> dimensions,
+            @Parameter(description = "Metrics to compute per group (default: all)")
+            @RequestParam(required = false) List<String> metrics,
+            @Parameter(description = "Only include this category")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Only include this vendor")
+            @RequestParam(required = false) String vendor,
+            @Parameter(description = "Only include this product")
+            @RequestParam(required = false) String product,
+            @Parameter(description = "Only include transactions on or after this date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Only include transactions on or before this date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws InvalidQueryException, InvalidDateRangeException {
+        if (startDate != null && endDate != null) {
+            validateDateRange(startDate, endDate);
+        }
+        return transactionService.groupBy(dimensions, metrics, category, vendor, product, startDate, endDate);
+    }
+
+    @Operation(summary = "Search transactions",
+            description = "Returns the transactions matching all of the optional filters, latest first, e.g. every transaction over 500 "
+                    + "at one vendor in a quarter. Strings match ignoring case and amount bounds are inclusive. Vendor, product and amount "
+                    + "filters are answered from secondary indexes, so a selective search does not read the rest of the dataset.")
+    @GetMapping("/search")
+    public TransactionSearchResultDTO searchTransactions(
+            @Parameter(description = "Only include this category")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Only include this vendor")
+            @RequestParam(required = false) String vendor,
+            @Parameter(description = "Only include this product")
+            @RequestParam(required = false) String product,
+            @Parameter(description = "Only include transactions of at least this amount")
+            @RequestParam(required = false) Double minAmount,
+            @Parameter(description = "Only include transactions of at most this amount")
+            @RequestParam(required = false) Double maxAmount,
+            @Parameter(description = "Only include transactions on or after this date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Only include transactions on or before this date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws InvalidQueryException, InvalidDateRangeException {
+        if (startDate != null && endDate != null) {
+            validateDateRange(startDate, endDate);
+        }
+        return transactionService.searchTransactions(category, vendor, product, minAmount, maxAmount, startDate, endDate);
     }
 
     @Operation(summary = "Get all transactions for a given category",
@@ -38,6 +144,44 @@ public class TransactionController {
         return transactionService.getTransactionsByCategory(category);
     }
 
+    @Operation(summary = "Get one page of the transactions of a category",
+            description = "Returns at most limit transactions of the specified category, latest first. "
+                    + "Pass the nextCursor of a page as cursor to get the next one; nextCursor is null on the last page. "
+                    + "If the category doesn't exist, a 404 error will be returned.")
+    @GetMapping(value = "/categories/{category}", params = "limit")
+    public TransactionPageDTO getTransactionPageByCategory(
+            @Parameter(description = "The category to filter transactions")
+            @PathVariable String category,
+            @Parameter(description = "Maximum number of transactions in the page (1 to 1000)")
+            @RequestParam int limit,
+            @Parameter(description = "The nextCursor of the previous page")
+            @RequestParam(required = false) String cursor
+    ) throws CategoryNotFoundException, InvalidQueryException {
+        return transactionService.getTransactionPageByCategory(category, cursor, limit);
+    }
+
+    @Operation(summary = "Stream all transactions for a given category",
+            description = "Writes the transactions of the specified category, latest first, as newline-delimited JSON while they are read, "
+                    + "so the response is never held in memory. Selected with Accept: application/x-ndjson. "
+                    + "If the category doesn't exist, a 404 error will be returned.")
+    @GetMapping(value = "/categories/{category}", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamTransactionsByCategory(
+            @Parameter(description = "The category to filter transactions")
+            @PathVariable String category
+    ) throws CategoryNotFoundException {
+        Iterator<Transaction> transactions = transactionService.streamTransactionsByCategory(category);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                while (transactions.hasNext()) {
+                    generator.writeObject(transactions.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().header("Content-Type", APPLICATION_NDJSON).body(body);
+    }
+
     @Operation(summary = "Get total outgoing for a category within a date range",
             description = "Calculates the total outgoing amount for the specified category between the given start and end dates. "
                     + "If no date range is provided, the calculation will include all transactions for the category since 1970.")
@@ -54,6 +198,58 @@ public class TransactionController {
         return transactionService.getTotalOutgoingForCategory(category, startDate, endDate);
     }
 
+    @Operation(summary = "Get a summary of a category within a date range",
+            description = "Returns the count, total, minimum, maximum and average amount, and the average per month, "
+                    + "for the specified category between the given start and end dates, computed in a single pass. "
+                    + "If no date range is provided, all transactions for the category since 1970 are included.")
+    @GetMapping("/categories/{category}/summary")
+    public CategorySummaryDTO getSummaryForCategory(
+            @Parameter(description = "The category to analyze")
+            @PathVariable String category,
+            @Parameter(description = "The start date for the calculation (default: 1970-01-01)")
+            @RequestParam(required = false, defaultValue = "1970-01-01") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "The end date for the calculation (default: today)")
+            @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now().toString()}") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws UnableToCalculateException, InvalidDateRangeException {
+        validateDateRange(startDate, endDate);
+        return transactionService.getSummaryForCategory(category, startDate, endDate);
+    }
+
+    @Operation(summary = "Get the largest transactions of a category within a date range",
+            description = "Returns the limit transactions with the largest amounts for the specified category between the given start and end dates, "
+                    + "largest first. If no dates are provided, all transactions for the category since 1970 will be considered.")
+    @GetMapping("/categories/{category}/top")
+    public TopTransactionsDTO getTopTransactionsForCategory(
+            @Parameter(description = "The category to analyze") @PathVariable String category,
+            @Parameter(description = "Number of transactions to return (1 to 1000, default: 10)")
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @Parameter(description = "The start date for the calculation (default: 1970-01-01)")
+            @RequestParam(required = false, defaultValue = "1970-01-01") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "The end date for the calculation (default: today)")
+            @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now().toString()}") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws UnableToCalculateException, InvalidDateRangeException, InvalidQueryException {
+        validateDateRange(startDate, endDate);
+        return transactionService.getTopTransactionsForCategory(category, startDate, endDate, limit);
+    }
+
+    @Operation(summary = "Get amount percentiles for a category within a date range",
+            description = "Returns the requested percentiles of the transaction amounts for the specified category between the given start and end dates. "
+                    + "Percentiles are estimated from quantile sketches and are exact for categories with up to a couple of hundred transactions a month. "
+                    + "If no dates are provided, all transactions for the category since 1970 will be considered.")
+    @GetMapping("/categories/{category}/percentiles")
+    public PercentilesDTO getPercentilesForCategory(
+            @Parameter(description = "The category to analyze") @PathVariable String category,
+            @Parameter(description = "Percentiles to compute, each greater than 0 and at most 100 (default: 50,90,99)")
+            @RequestParam(required = false, defaultValue = "50,90,99") List<Double> percentiles,
+            @Parameter(description = "The start date for the calculation (default: 1970-01-01)")
+            @RequestParam(required = false, defaultValue = "1970-01-01") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "The end date for the calculation (default: today)")
+            @RequestParam(required = false, defaultValue = "#{T(java.time.LocalDate).now().toString()}") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) throws UnableToCalculateException, InvalidDateRangeException, InvalidQueryException {
+        validateDateRange(startDate, endDate);
+        return transactionService.getPercentilesForCategory(category, startDate, endDate, percentiles);
+    }
+
     @Operation(summary = "Get monthly average spend for a category over a year",
             description = "Calculates the monthly average spend for the specified category in the given year. "
                     + "The range is automatically set from January 1st to December 31st of the specified year.")
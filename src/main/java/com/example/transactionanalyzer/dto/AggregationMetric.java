@@ -0,0 +1,23 @@
+package com.example.transactionanalyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+public enum AggregationMetric {
+    @JsonProperty("total") TOTAL,
+    @JsonProperty("min") MIN,
+    @JsonProperty("max") MAX,
+    @JsonProperty("average") AVERAGE,
+    @JsonProperty("count") COUNT;
+
+    public String jsonName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<AggregationMetric> fromJsonName(String name) {
+        return Arrays.stream(values()).filter(metric -> metric.jsonName().equalsIgnoreCase(name.trim())).findFirst();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@NoArgsConstructor
+public class AggregationQueryDTO {
+    private String category;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private AggregationMetric metric;
+
+    public AggregationQueryDTO(String category, LocalDate startDate, LocalDate endDate, AggregationMetric metric) {
+        this.category = category;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.metric = metric;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+public class AggregationResultDTO {
+    private String category;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private AggregationMetric metric;
+    private long count;
+    private Double value;
+
+    public AggregationResultDTO(String category, LocalDate startDate, LocalDate endDate, AggregationMetric metric, long count, Double value) {
+        this.category = category;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.metric = metric;
+        this.count = count;
+        this.value = value;
+    }
+
+}
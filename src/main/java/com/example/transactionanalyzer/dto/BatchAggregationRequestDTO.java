@@ -0,0 +1,21 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@NoArgsConstructor
+public class BatchAggregationRequestDTO {
+    private List<AggregationQueryDTO> queries;
+    private boolean groupByCategory;
+
+    public BatchAggregationRequestDTO(List<AggregationQueryDTO> queries, boolean groupByCategory) {
+        this.queries = queries;
+        this.groupByCategory = groupByCategory;
+    }
+
+}
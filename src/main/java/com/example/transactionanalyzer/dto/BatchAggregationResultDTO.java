@@ -0,0 +1,17 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class BatchAggregationResultDTO {
+    private List<AggregationResultDTO> results;
+
+    public BatchAggregationResultDTO(List<AggregationResultDTO> results) {
+        this.results = results;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Setter
+@Getter
+public class CategorySummaryDTO {
+    private String category;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long count;
+    private double totalAmount;
+    private double minAmount;
+    private double maxAmount;
+    private double averageAmount;
+    private Map<String, Double> monthlyAverages;
+
+    public CategorySummaryDTO(String category, LocalDate startDate, LocalDate endDate, long count, double totalAmount,
+                              double minAmount, double maxAmount, double averageAmount, Map<String, Double> monthlyAverages) {
+        this.category = category;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.count = count;
+        this.totalAmount = totalAmount;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.averageAmount = averageAmount;
+        this.monthlyAverages = monthlyAverages;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class GroupByResultDTO {
+    private List<String> dimensions;
+    private List<String> metrics;
+    private List<GroupDTO> groups;
+
+    public GroupByResultDTO(List<String> dimensions, List<String> metrics, List<GroupDTO> groups) {
+        this.dimensions = dimensions;
+        this.metrics = metrics;
+        this.groups = groups;
+    }
+
+}
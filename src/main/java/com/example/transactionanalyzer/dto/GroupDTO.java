@@ -0,0 +1,19 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Setter
+@Getter
+public class GroupDTO {
+    private Map<String, String> key;
+    private Map<String, Double> values;
+
+    public GroupDTO(Map<String, String> key, Map<String, Double> values) {
+        this.key = key;
+        this.values = values;
+    }
+
+}
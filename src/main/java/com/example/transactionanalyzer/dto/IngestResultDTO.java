@@ -0,0 +1,17 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class IngestResultDTO {
+    private int acceptedCount;
+    private int transactionCount;
+
+    public IngestResultDTO(int acceptedCount, int transactionCount) {
+        this.acceptedCount = acceptedCount;
+        this.transactionCount = transactionCount;
+    }
+
+}
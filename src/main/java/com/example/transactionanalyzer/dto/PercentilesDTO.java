@@ -0,0 +1,26 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Setter
+@Getter
+public class PercentilesDTO {
+    private String category;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long count;
+    private Map<String, Double> percentiles;
+
+    public PercentilesDTO(String category, LocalDate startDate, LocalDate endDate, long count, Map<String, Double> percentiles) {
+        this.category = category;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.count = count;
+        this.percentiles = percentiles;
+    }
+
+}
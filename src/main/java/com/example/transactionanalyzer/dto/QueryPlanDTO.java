@@ -0,0 +1,23 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class QueryPlanDTO {
+    private int matchingTransactions;
+    private int segments;
+    private int prunedSegments;
+    private List<QueryPlanStepDTO> steps;
+
+    public QueryPlanDTO(int matchingTransactions, int segments, int prunedSegments, List<QueryPlanStepDTO> steps) {
+        this.matchingTransactions = matchingTransactions;
+        this.segments = segments;
+        this.prunedSegments = prunedSegments;
+        this.steps = steps;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class QueryPlanStepDTO {
+    private String operation;
+    private long estimatedRows;
+    private long actualRows;
+
+    public QueryPlanStepDTO(String operation, long estimatedRows, long actualRows) {
+        this.operation = operation;
+        this.estimatedRows = estimatedRows;
+        this.actualRows = actualRows;
+    }
+
+}
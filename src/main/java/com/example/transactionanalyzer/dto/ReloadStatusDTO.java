@@ -0,0 +1,19 @@
+package com.example.transactionanalyzer.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class ReloadStatusDTO {
+    private long reloadCount;
+    private long lastReloadDurationMillis;
+    private int transactionCount;
+
+    public ReloadStatusDTO(long reloadCount, long lastReloadDurationMillis, int transactionCount) {
+        this.reloadCount = reloadCount;
+        this.lastReloadDurationMillis = lastReloadDurationMillis;
+        this.transactionCount = transactionCount;
+    }
+
+}
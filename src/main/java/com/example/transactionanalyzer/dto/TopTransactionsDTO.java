@@ -0,0 +1,25 @@
+package com.example.transactionanalyzer.dto;
+
+import com.example.transactionanalyzer.model.Transaction;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Setter
+@Getter
+public class TopTransactionsDTO {
+    private String category;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<Transaction> transactions;
+
+    public TopTransactionsDTO(String category, LocalDate startDate, LocalDate endDate, List<Transaction> transactions) {
+        this.category = category;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.transactions = transactions;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.transactionanalyzer.dto;
+
+import com.example.transactionanalyzer.model.Transaction;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class TransactionPageDTO {
+    private String category;
+    private List<Transaction> transactions;
+    private String nextCursor;
+
+    public TransactionPageDTO(String category, List<Transaction> transactions, String nextCursor) {
+        this.category = category;
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.example.transactionanalyzer.dto;
+
+import com.example.transactionanalyzer.model.Transaction;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class TransactionSearchResultDTO {
+    private int count;
+    private List<Transaction> transactions;
+
+    public TransactionSearchResultDTO(int count, List<Transaction> transactions) {
+        this.count = count;
+        this.transactions = transactions;
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.example.transactionanalyzer.exceptions;
+
+public class DatasetReloadException extends RuntimeException {
+    public DatasetReloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
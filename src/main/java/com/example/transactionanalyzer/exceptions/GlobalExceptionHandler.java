@@ -2,6 +2,7 @@ package com.example.transactionanalyzer.exceptions;
 
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -23,13 +24,21 @@ public class GlobalExceptionHandler {
         return response;
     }
 
+    /**
+     * Errors are always JSON, whatever the request accepts: a client of a streaming or binary
+     * representation, e.g. {@code Accept: application/x-ndjson}, still gets a readable body.
+     */
+    private ResponseEntity<Map<String, Object>> errorResponse(String message, HttpStatus status) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(createErrorResponse(message, status));
+    }
+
     @ExceptionHandler(CategoryNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleCategoryNotFoundException(CategoryNotFoundException ex) {
-        return new ResponseEntity<>(createErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
+        return errorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
     @ExceptionHandler(InvalidDateRangeException.class)
     public ResponseEntity<Map<String, Object>> handleInvalidDateRangeException(InvalidDateRangeException ex) {
-        return new ResponseEntity<>(createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
+        return errorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
     private boolean isLocalDateException(ConversionFailedException ex) {
@@ -39,12 +48,32 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ConversionFailedException.class)
     public ResponseEntity<Map<String, Object>> handleConversionFailedException(ConversionFailedException ex) {
         String message = isLocalDateException(ex) ? INVALID_DATE_FORMAT_ERROR.formatted("yyyy-mm-dd") : "Invalid input provided. Conversion failed.";
-        return new ResponseEntity<>(createErrorResponse(message, HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
+        return errorResponse(message, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(UnableToCalculateException.class)
     public ResponseEntity<Map<String, Object>> handleUnableToCalculateException(UnableToCalculateException ex) {
-        return new ResponseEntity<>(createErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
+        return errorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidTransactionException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidTransactionException(InvalidTransactionException ex) {
+        return errorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidBatchRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidBatchRequestException(InvalidBatchRequestException ex) {
+        return errorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidQueryException(InvalidQueryException ex) {
+        return errorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(DatasetReloadException.class)
+    public ResponseEntity<Map<String, Object>> handleDatasetReloadException(DatasetReloadException ex) {
+        return errorResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
 }
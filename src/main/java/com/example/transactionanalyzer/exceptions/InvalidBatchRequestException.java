@@ -0,0 +1,7 @@
+package com.example.transactionanalyzer.exceptions;
+
+public class InvalidBatchRequestException extends RuntimeException {
+    public InvalidBatchRequestException(String message) {
+        super(message);
+    }
+}
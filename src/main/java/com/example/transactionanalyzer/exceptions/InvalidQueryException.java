@@ -0,0 +1,7 @@
+package com.example.transactionanalyzer.exceptions;
+
+public class InvalidQueryException extends RuntimeException {
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.transactionanalyzer.exceptions;
+
+public class InvalidTransactionException extends RuntimeException {
+    public InvalidTransactionException(String message) {
+        super(message);
+    }
+}
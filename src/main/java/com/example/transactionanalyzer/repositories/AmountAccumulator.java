@@ -0,0 +1,144 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running count, sum, extremes and date span of amounts that any number of threads can add to
+ * at once. Count and sum are striped, so concurrent writers do not contend on one memory
+ * location; extremes and dates are updated by compare-and-set only when they actually change,
+ * which after the first few values is rare. Each stripe of the sum is Kahan-compensated, like
+ * the prefix sums of {@link AmountIndex}, so the total agrees with a query over the same rows.
+ * <p>
+ * Reads are not a consistent snapshot while writers are active: each value includes every add
+ * that completed before the read and possibly some in progress.
+ */
+public class AmountAccumulator {
+
+    private static final int SUM_STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+    private final LongAdder count = new LongAdder();
+    private final AtomicReferenceArray<SumCell> sumCells = new AtomicReferenceArray<>(SUM_STRIPES);
+    private final AtomicLong minBits = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+    private final AtomicLong maxBits = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+    private final AtomicInteger firstDay = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger lastDay = new AtomicInteger(Integer.MIN_VALUE);
+
+    public void add(double amount, int epochDay) {
+        count.increment();
+        sumCell().add(amount);
+        lowerTo(minBits, amount);
+        raiseTo(maxBits, amount);
+        if (epochDay < firstDay.get()) {
+            firstDay.accumulateAndGet(epochDay, Math::min);
+        }
+        if (epochDay > lastDay.get()) {
+            lastDay.accumulateAndGet(epochDay, Math::max);
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double sum() {
+        double sum = 0;
+        double compensation = 0;
+        for (int i = 0; i < SUM_STRIPES; i++) {
+            SumCell cell = sumCells.get(i);
+            if (cell == null) {
+                continue;
+            }
+            double[] parts = cell.parts();
+            for (double part : parts) {
+                double term = part - compensation;
+                double next = sum + term;
+                compensation = (next - sum) - term;
+                sum = next;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Smallest amount added, or positive infinity when none was.
+     */
+    public double min() {
+        return Double.longBitsToDouble(minBits.get());
+    }
+
+    /**
+     * Largest amount added, or negative infinity when none was.
+     */
+    public double max() {
+        return Double.longBitsToDouble(maxBits.get());
+    }
+
+    /**
+     * Tells whether every amount added so far is dated from {@code startDay} to {@code endDay}
+     * inclusive, i.e. whether the totals also answer that date range.
+     */
+    public boolean coversAll(long startDay, long endDay) {
+        return startDay <= firstDay.get() && lastDay.get() <= endDay;
+    }
+
+    /**
+     * The stripe of the calling thread, created on its first add so that accumulators written
+     * by one thread, such as most per-month totals, hold a single stripe.
+     */
+    private SumCell sumCell() {
+        int index = (int) Thread.currentThread().threadId() & (SUM_STRIPES - 1);
+        SumCell cell = sumCells.get(index);
+        if (cell == null) {
+            sumCells.compareAndSet(index, null, new SumCell());
+            cell = sumCells.get(index);
+        }
+        return cell;
+    }
+
+    private static void lowerTo(AtomicLong bits, double value) {
+        long current;
+        do {
+            current = bits.get();
+            if (!(value < Double.longBitsToDouble(current))) {
+                return;
+            }
+        } while (!bits.compareAndSet(current, Double.doubleToRawLongBits(value)));
+    }
+
+    private static void raiseTo(AtomicLong bits, double value) {
+        long current;
+        do {
+            current = bits.get();
+            if (!(value > Double.longBitsToDouble(current))) {
+                return;
+            }
+        } while (!bits.compareAndSet(current, Double.doubleToRawLongBits(value)));
+    }
+
+    /**
+     * Kahan-compensated sum of one stripe. Threads sharing a stripe take turns on its lock,
+     * which with as many stripes as cores is rarely contended.
+     */
+    private static final class SumCell {
+
+        private double sum;
+        private double compensation;
+
+        synchronized void add(double amount) {
+            double term = amount - compensation;
+            double next = sum + term;
+            compensation = (next - sum) - term;
+            sum = next;
+        }
+
+        /**
+         * The sum and its lost low-order part, whose total is the compensated value.
+         */
+        synchronized double[] parts() {
+            return new double[]{sum, -compensation};
+        }
+    }
+}
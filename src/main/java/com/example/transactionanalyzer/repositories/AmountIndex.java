@@ -0,0 +1,128 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Range aggregates over an amount column, built once when the column is loaded.
+ * <p>
+ * Sums come from a prefix-sum array in O(1); minimum and maximum come from bottom-up segment
+ * trees in O(log n). Because the column is ordered by category and then date, a category and
+ * date-range query maps to a single row range and is answered without scanning it.
+ */
+public class AmountIndex {
+
+    private final DoubleBuffer prefixSums;
+    private final DoubleBuffer minTree;
+    private final DoubleBuffer maxTree;
+    private final int size;
+    private final int offset;
+
+    public AmountIndex(double[] amounts) {
+        int size = amounts.length;
+        double[] minTree = new double[2 * size];
+        double[] maxTree = new double[2 * size];
+        System.arraycopy(amounts, 0, minTree, size, size);
+        System.arraycopy(amounts, 0, maxTree, size, size);
+        for (int node = size - 1; node > 0; node--) {
+            minTree[node] = Math.min(minTree[2 * node], minTree[2 * node + 1]);
+            maxTree[node] = Math.max(maxTree[2 * node], maxTree[2 * node + 1]);
+        }
+        this.size = size;
+        this.offset = 0;
+        this.prefixSums = DoubleBuffer.wrap(buildPrefixSums(amounts));
+        this.minTree = DoubleBuffer.wrap(minTree);
+        this.maxTree = DoubleBuffer.wrap(maxTree);
+    }
+
+    /**
+     * Wraps an index that was already built, e.g. one read from a {@link TransactionSnapshot}.
+     */
+    AmountIndex(DoubleBuffer prefixSums, DoubleBuffer minTree, DoubleBuffer maxTree) {
+        this(prefixSums, minTree, maxTree, prefixSums.limit() - 1, 0);
+    }
+
+    private AmountIndex(DoubleBuffer prefixSums, DoubleBuffer minTree, DoubleBuffer maxTree, int size, int offset) {
+        this.size = size;
+        this.offset = offset;
+        this.prefixSums = prefixSums;
+        this.minTree = minTree;
+        this.maxTree = maxTree;
+    }
+
+    /**
+     * The same index read with row numbers shifted by {@code from}, for a slice of the column
+     * starting at that row. Only whole-column indexes are written to snapshots.
+     */
+    AmountIndex slice(int from) {
+        return new AmountIndex(prefixSums, minTree, maxTree, size, offset + from);
+    }
+
+    /**
+     * Sum of the amounts at rows {@code [from, to)}.
+     */
+    public double sum(int from, int to) {
+        return prefixSums.get(offset + to) - prefixSums.get(offset + from);
+    }
+
+    /**
+     * Minimum amount at rows {@code [from, to)}, or positive infinity for an empty range.
+     */
+    public double min(int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int low = offset + from + size, high = offset + to + size; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                min = Math.min(min, minTree.get(low++));
+            }
+            if ((high & 1) == 1) {
+                min = Math.min(min, minTree.get(--high));
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Maximum amount at rows {@code [from, to)}, or negative infinity for an empty range.
+     */
+    public double max(int from, int to) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int low = offset + from + size, high = offset + to + size; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                max = Math.max(max, maxTree.get(low++));
+            }
+            if ((high & 1) == 1) {
+                max = Math.max(max, maxTree.get(--high));
+            }
+        }
+        return max;
+    }
+
+    DoubleBuffer prefixSums() {
+        return prefixSums.duplicate();
+    }
+
+    DoubleBuffer minTree() {
+        return minTree.duplicate();
+    }
+
+    DoubleBuffer maxTree() {
+        return maxTree.duplicate();
+    }
+
+    /**
+     * Kahan-compensated running sums, so that the difference of two entries stays within a
+     * couple of ulps of the exact range sum even over millions of rows.
+     */
+    private static double[] buildPrefixSums(double[] amounts) {
+        double[] prefixSums = new double[amounts.length + 1];
+        double sum = 0;
+        double compensation = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            double term = amounts[i] - compensation;
+            double next = sum + term;
+            compensation = (next - sum) - term;
+            sum = next;
+            prefixSums[i + 1] = sum;
+        }
+        return prefixSums;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One {@link QuantileSketch} of amounts per category and calendar month of a segment.
+ * <p>
+ * Rows are ordered by category and then date, so every (category, month) bucket is a
+ * contiguous run of rows. The sketch of any row range is the merge of the buckets it covers
+ * completely plus the individual rows of the at most two buckets it covers partly.
+ */
+class AmountSketchIndex {
+
+    private final TransactionColumns columns;
+    private final int[] bucketStarts;
+    private final QuantileSketch[] sketches;
+
+    AmountSketchIndex(TransactionColumns columns) {
+        this.columns = columns;
+        List<Integer> starts = new ArrayList<>();
+        List<QuantileSketch> bucketSketches = new ArrayList<>();
+        QuantileSketch sketch = null;
+        long monthEnd = Long.MIN_VALUE;
+        for (int row = 0; row < columns.size(); row++) {
+            int day = columns.epochDay(row);
+            if (sketch == null || day > monthEnd || isNewCategory(row)) {
+                starts.add(row);
+                sketch = new QuantileSketch();
+                bucketSketches.add(sketch);
+                monthEnd = LocalDate.ofEpochDay(day).withDayOfMonth(1).plusMonths(1).toEpochDay() - 1;
+            }
+            sketch.add(columns.amount(row));
+        }
+        this.bucketStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+        this.sketches = bucketSketches.toArray(QuantileSketch[]::new);
+    }
+
+    private boolean isNewCategory(int row) {
+        return columns.categoryId(row) != columns.categoryId(row - 1)
+                && !TransactionRepositoryImpl.normalizeCategory(columns.category(row))
+                .equals(TransactionRepositoryImpl.normalizeCategory(columns.category(row - 1)));
+    }
+
+    /**
+     * Adds the amounts of rows {@code [from, to)} to {@code target}.
+     */
+    void addTo(QuantileSketch target, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int bucket = bucketOf(from);
+        int row = from;
+        while (row < to) {
+            int bucketEnd = bucket + 1 < bucketStarts.length ? bucketStarts[bucket + 1] : columns.size();
+            if (row == bucketStarts[bucket] && bucketEnd <= to) {
+                target.merge(sketches[bucket]);
+            } else {
+                for (int r = row; r < Math.min(bucketEnd, to); r++) {
+                    target.add(columns.amount(r));
+                }
+            }
+            row = bucketEnd;
+            bucket++;
+        }
+    }
+
+    private int bucketOf(int row) {
+        int index = Arrays.binarySearch(bucketStarts, row);
+        return index >= 0 ? index : -index - 2;
+    }
+}
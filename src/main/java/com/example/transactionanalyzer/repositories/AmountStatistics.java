@@ -0,0 +1,43 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.DoubleSummaryStatistics;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * {@link DoubleSummaryStatistics} over transaction amounts that also keeps one bucket of
+ * statistics per calendar month, so count, sum, extremes and monthly averages all come out of
+ * a single pass over the rows.
+ */
+public class AmountStatistics extends DoubleSummaryStatistics {
+
+    private final NavigableMap<YearMonth, DoubleSummaryStatistics> monthlyStatistics = new TreeMap<>();
+    private DoubleSummaryStatistics currentMonth;
+    private long currentMonthStart = Long.MAX_VALUE;
+    private long currentMonthEnd = Long.MIN_VALUE;
+
+    /**
+     * Records an amount dated {@code epochDay}. Rows arrive grouped by date, so the month bucket
+     * is only looked up when the date leaves the current month.
+     */
+    public void accept(long epochDay, double amount) {
+        accept(amount);
+        if (epochDay < currentMonthStart || epochDay > currentMonthEnd) {
+            YearMonth month = YearMonth.from(LocalDate.ofEpochDay(epochDay));
+            currentMonth = monthlyStatistics.computeIfAbsent(month, ignored -> new DoubleSummaryStatistics());
+            currentMonthStart = month.atDay(1).toEpochDay();
+            currentMonthEnd = month.atEndOfMonth().toEpochDay();
+        }
+        currentMonth.accept(amount);
+    }
+
+    /**
+     * Statistics per month, in calendar order.
+     */
+    public NavigableMap<YearMonth, DoubleSummaryStatistics> getMonthlyStatistics() {
+        return Collections.unmodifiableNavigableMap(monthlyStatistics);
+    }
+}
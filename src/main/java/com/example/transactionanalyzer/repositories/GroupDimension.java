@@ -0,0 +1,13 @@
+package com.example.transactionanalyzer.repositories;
+
+/**
+ * What a {@link TransactionFilterQuery#groupBy(java.util.List)} can group on: one of the
+ * dictionary-encoded string columns, or the date truncated to a calendar bucket.
+ */
+public enum GroupDimension {
+    CATEGORY, VENDOR, PRODUCT, DAY, WEEK, MONTH, YEAR;
+
+    boolean isTimeBucket() {
+        return ordinal() >= DAY.ordinal();
+    }
+}
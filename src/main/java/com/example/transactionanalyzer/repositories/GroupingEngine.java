@@ -0,0 +1,252 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.util.*;
+
+/**
+ * Single-pass group-by over {@link SegmentWindow}s.
+ * <p>
+ * A group key is a tuple of ints, one per dimension: string columns contribute an id from a
+ * dictionary shared by all segments, dates contribute their bucket number. Segment dictionary
+ * ids are translated when first met and remembered per dictionary, which partitions of one
+ * dataset share, so the per-row work is array lookups and a probe of an open-addressing table
+ * whose keys and aggregates live in primitive arrays.
+ * Strings group case-insensitively, like the filters, and a group is labelled with the first
+ * spelling seen.
+ */
+class GroupingEngine {
+
+    private static final int EMPTY = -1;
+    private static final int UNTRANSLATED = -1;
+
+    private final GroupDimension[] dimensions;
+    private final int width;
+    private final Map<GroupDimension, LabelDictionary> labels = new EnumMap<>(GroupDimension.class);
+    private int[] slots = new int[16];
+    private int[] keys = new int[0];
+    private long[] counts = new long[0];
+    private double[] sums = new double[0];
+    private double[] mins = new double[0];
+    private double[] maxs = new double[0];
+    private int groups;
+
+    GroupingEngine(List<GroupDimension> dimensions) {
+        this.dimensions = dimensions.toArray(GroupDimension[]::new);
+        this.width = this.dimensions.length;
+        for (GroupDimension dimension : this.dimensions) {
+            if (!dimension.isTimeBucket()) {
+                labels.put(dimension, new LabelDictionary());
+            }
+        }
+        Arrays.fill(slots, EMPTY);
+        grow(16);
+    }
+
+    void accept(SegmentWindow window) {
+        TransactionColumns columns = window.columns();
+        int[][] globalIds = new int[width][];
+        for (int d = 0; d < width; d++) {
+            globalIds[d] = switch (dimensions[d]) {
+                case CATEGORY -> labels.get(GroupDimension.CATEGORY).translations(columns.categories());
+                case VENDOR -> labels.get(GroupDimension.VENDOR).translations(columns.vendors());
+                case PRODUCT -> labels.get(GroupDimension.PRODUCT).translations(columns.products());
+                default -> null;
+            };
+        }
+        int[] tuple = new int[width];
+        int lastDay = Integer.MIN_VALUE;
+        for (int i = 0; i < window.count(); i++) {
+            int row = window.row(i);
+            int day = columns.epochDay(row);
+            for (int d = 0; d < width; d++) {
+                switch (dimensions[d]) {
+                    case CATEGORY -> tuple[d] = globalId(d, globalIds[d], columns.categories(), columns.categoryId(row));
+                    case VENDOR -> tuple[d] = globalId(d, globalIds[d], columns.vendors(), columns.vendorId(row));
+                    case PRODUCT -> tuple[d] = globalId(d, globalIds[d], columns.products(), columns.productId(row));
+                    default -> {
+                        if (day != lastDay) {
+                            tuple[d] = bucket(dimensions[d], day);
+                        }
+                    }
+                }
+            }
+            lastDay = day;
+            add(findOrInsert(tuple), columns.amount(row));
+        }
+    }
+
+    private int globalId(int d, int[] translations, StringDictionary dictionary, int id) {
+        int global = translations[id];
+        if (global == UNTRANSLATED) {
+            global = labels.get(dimensions[d]).translate(dictionary, id);
+            translations[id] = global;
+        }
+        return global;
+    }
+
+    /**
+     * Groups ordered by their key, dimension by dimension.
+     */
+    List<TransactionGroup> groups() {
+        Integer[] order = new Integer[groups];
+        for (int g = 0; g < groups; g++) {
+            order[g] = g;
+        }
+        Arrays.sort(order, this::compareGroups);
+        List<TransactionGroup> result = new ArrayList<>(groups);
+        for (int g : order) {
+            List<String> key = new ArrayList<>(width);
+            for (int d = 0; d < width; d++) {
+                key.add(label(dimensions[d], keys[g * width + d]));
+            }
+            result.add(new TransactionGroup(Collections.unmodifiableList(key), counts[g], sums[g], mins[g], maxs[g]));
+        }
+        return result;
+    }
+
+    private int compareGroups(int left, int right) {
+        for (int d = 0; d < width; d++) {
+            int leftValue = keys[left * width + d];
+            int rightValue = keys[right * width + d];
+            int compared = dimensions[d].isTimeBucket()
+                    ? Integer.compare(leftValue, rightValue)
+                    : labels.get(dimensions[d]).compare(leftValue, rightValue);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return 0;
+    }
+
+    private int findOrInsert(int[] tuple) {
+        int mask = slots.length - 1;
+        for (int slot = hash(tuple) & mask; ; slot = (slot + 1) & mask) {
+            int group = slots[slot];
+            if (group == EMPTY) {
+                return insert(slot, tuple);
+            }
+            if (Arrays.equals(keys, group * width, group * width + width, tuple, 0, width)) {
+                return group;
+            }
+        }
+    }
+
+    private int insert(int slot, int[] tuple) {
+        int group = groups++;
+        if (group == counts.length) {
+            grow(counts.length * 2);
+        }
+        System.arraycopy(tuple, 0, keys, group * width, width);
+        mins[group] = Double.POSITIVE_INFINITY;
+        maxs[group] = Double.NEGATIVE_INFINITY;
+        slots[slot] = group;
+        if (groups * 2 > slots.length) {
+            rehash();
+        }
+        return group;
+    }
+
+    private void add(int group, double amount) {
+        counts[group]++;
+        sums[group] += amount;
+        mins[group] = Math.min(mins[group], amount);
+        maxs[group] = Math.max(maxs[group], amount);
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity * width);
+        counts = Arrays.copyOf(counts, capacity);
+        sums = Arrays.copyOf(sums, capacity);
+        mins = Arrays.copyOf(mins, capacity);
+        maxs = Arrays.copyOf(maxs, capacity);
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        int mask = slots.length - 1;
+        int[] tuple = new int[width];
+        for (int group = 0; group < groups; group++) {
+            System.arraycopy(keys, group * width, tuple, 0, width);
+            int slot = hash(tuple) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = group;
+        }
+    }
+
+    private static int hash(int[] tuple) {
+        int hash = Arrays.hashCode(tuple) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bucket(GroupDimension dimension, int epochDay) {
+        return switch (dimension) {
+            case DAY -> epochDay;
+            case WEEK -> epochDay - Math.floorMod(epochDay + 3, 7);
+            case MONTH -> {
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                yield date.getYear() * 12 + date.getMonthValue() - 1;
+            }
+            case YEAR -> LocalDate.ofEpochDay(epochDay).getYear();
+            default -> throw new IllegalArgumentException(dimension + " is not a time bucket");
+        };
+    }
+
+    private String label(GroupDimension dimension, int value) {
+        return switch (dimension) {
+            case DAY -> LocalDate.ofEpochDay(value).toString();
+            case WEEK -> {
+                LocalDate monday = LocalDate.ofEpochDay(value);
+                yield "%d-W%02d".formatted(monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+            case MONTH -> YearMonth.of(Math.floorDiv(value, 12), Math.floorMod(value, 12) + 1).toString();
+            case YEAR -> Integer.toString(value);
+            default -> labels.get(dimension).label(value);
+        };
+    }
+
+    /**
+     * Ids shared by every segment for one string dimension, keyed case-insensitively.
+     */
+    private static final class LabelDictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> labels = new ArrayList<>();
+        private final Map<StringDictionary, int[]> translations = new IdentityHashMap<>();
+
+        /**
+         * Shared ids for the ids of a segment dictionary, {@value #UNTRANSLATED} until
+         * {@link #translate} is called for them.
+         */
+        int[] translations(StringDictionary dictionary) {
+            return translations.computeIfAbsent(dictionary, ignored -> {
+                int[] translated = new int[dictionary.size()];
+                Arrays.fill(translated, UNTRANSLATED);
+                return translated;
+            });
+        }
+
+        /**
+         * Shared id for one id of a segment dictionary.
+         */
+        int translate(StringDictionary dictionary, int id) {
+            String value = dictionary.valueOf(id);
+            String normalized = value == null ? null : TransactionRepositoryImpl.normalizeCategory(value);
+            return ids.computeIfAbsent(normalized, ignored -> {
+                labels.add(value);
+                return labels.size() - 1;
+            });
+        }
+
+        String label(int id) {
+            return labels.get(id);
+        }
+
+        int compare(int left, int right) {
+            return Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER).compare(labels.get(left), labels.get(right));
+        }
+    }
+}
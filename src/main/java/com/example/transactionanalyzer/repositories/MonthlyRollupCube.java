@@ -0,0 +1,51 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Count, sum, minimum and maximum of a segment's amounts per category and calendar month,
+ * built in one pass when the segment is created. Monthly and yearly reports read at most
+ * twelve cells per segment instead of the rows behind them.
+ */
+class MonthlyRollupCube {
+
+    private final Map<String, NavigableMap<YearMonth, DoubleSummaryStatistics>> cells = new HashMap<>();
+
+    MonthlyRollupCube(TransactionColumns columns, Map<String, RowRange> rangesByCategory) {
+        rangesByCategory.forEach((category, range) -> {
+            NavigableMap<YearMonth, DoubleSummaryStatistics> months = new TreeMap<>();
+            DoubleSummaryStatistics cell = null;
+            long monthEnd = Long.MIN_VALUE;
+            for (int row = range.from(); row < range.to(); row++) {
+                int day = columns.epochDay(row);
+                if (day > monthEnd) {
+                    YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+                    cell = new DoubleSummaryStatistics();
+                    months.put(month, cell);
+                    monthEnd = month.atEndOfMonth().toEpochDay();
+                }
+                cell.accept(columns.amount(row));
+            }
+            cells.put(category, months);
+        });
+    }
+
+    /**
+     * Adds the cells of {@code normalizedCategory} for the months {@code from} to {@code to}
+     * inclusive to {@code target}, combining with cells already there.
+     */
+    void addTo(NavigableMap<YearMonth, DoubleSummaryStatistics> target, String normalizedCategory, YearMonth from, YearMonth to) {
+        NavigableMap<YearMonth, DoubleSummaryStatistics> months = cells.get(normalizedCategory);
+        if (months == null) {
+            return;
+        }
+        months.subMap(from, true, to, true).forEach((month, cell) ->
+                target.computeIfAbsent(month, ignored -> new DoubleSummaryStatistics()).combine(cell));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.time.LocalDate;
+
+/**
+ * Period the loaded dataset is partitioned by. Each partition holds the rows of one period and
+ * becomes its own {@link TransactionSegment}, so a query can skip the periods outside its date
+ * range without looking at their rows. {@link #NONE} keeps the dataset in one segment.
+ */
+public enum PartitionGranularity {
+    NONE, MONTH, QUARTER, YEAR;
+
+    /**
+     * Key of the period containing {@code epochDay}; keys increase with time.
+     */
+    int keyOf(int epochDay) {
+        if (this == NONE) {
+            return 0;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return switch (this) {
+            case MONTH -> date.getYear() * 12 + date.getMonthValue() - 1;
+            case QUARTER -> date.getYear() * 4 + (date.getMonthValue() - 1) / 3;
+            default -> date.getYear();
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * KLL quantile sketch over doubles.
+ * <p>
+ * Items are kept in a stack of compactors; an item at level {@code h} stands for
+ * {@code 2^h} input items. When the sketch outgrows its capacity, the lowest full level is
+ * sorted and every other item is promoted to the next level, the rest dropped. Capacities
+ * shrink geometrically towards the lower levels, so the sketch holds {@code O(k)} items and a
+ * quantile's rank error is about {@code 1.7 / k} of the count. Up to {@code k} items the
+ * sketch is exact. Sketches of different data merge into a sketch of the union, which is what
+ * lets per-bucket sketches answer arbitrary ranges of buckets.
+ * <p>
+ * Compaction alternates between keeping odd and even positions instead of flipping a random
+ * coin, so results are reproducible.
+ */
+public class QuantileSketch {
+
+    public static final int DEFAULT_K = 200;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private final List<double[]> levels = new ArrayList<>();
+    private final List<Integer> sizes = new ArrayList<>();
+    private long count;
+    private boolean keepOdd;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        this.k = k;
+        addLevel();
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public void add(double value) {
+        append(0, value);
+        count++;
+        compactIfFull();
+    }
+
+    /**
+     * Adds everything {@code other} has seen to this sketch. {@code other} is not modified.
+     */
+    public void merge(QuantileSketch other) {
+        for (int level = 0; level < other.levels.size(); level++) {
+            double[] items = other.levels.get(level);
+            for (int i = 0; i < other.sizes.get(level); i++) {
+                append(level, items[i]);
+            }
+        }
+        count += other.count;
+        compactIfFull();
+    }
+
+    /**
+     * Smallest retained value whose estimated rank reaches {@code fraction} of the count, i.e.
+     * the nearest-rank quantile, exact while the sketch has not compacted.
+     *
+     * @param fraction quantile in {@code (0, 1]}
+     * @return the quantile, or NaN for an empty sketch
+     */
+    public double quantile(double fraction) {
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        if (retained == 0) {
+            return Double.NaN;
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        Integer[] order = new Integer[retained];
+        int next = 0;
+        for (int level = 0; level < levels.size(); level++) {
+            for (int i = 0; i < sizes.get(level); i++) {
+                values[next] = levels.get(level)[i];
+                weights[next] = 1L << level;
+                order[next] = next;
+                next++;
+            }
+        }
+        Arrays.sort(order, (left, right) -> Double.compare(values[left], values[right]));
+        long totalWeight = Arrays.stream(weights).sum();
+        double target = Math.ceil(fraction * totalWeight);
+        long cumulative = 0;
+        for (int index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return values[order[retained - 1]];
+    }
+
+    private void append(int level, double value) {
+        while (level >= levels.size()) {
+            addLevel();
+        }
+        double[] items = levels.get(level);
+        int size = sizes.get(level);
+        if (size == items.length) {
+            items = Arrays.copyOf(items, Math.max(4, items.length * 2));
+            levels.set(level, items);
+        }
+        items[size] = value;
+        sizes.set(level, size + 1);
+    }
+
+    private void addLevel() {
+        levels.add(new double[0]);
+        sizes.add(0);
+    }
+
+    private void compactIfFull() {
+        while (retained() > totalCapacity()) {
+            for (int level = 0; level < levels.size(); level++) {
+                if (sizes.get(level) >= capacity(level)) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        double[] items = levels.get(level);
+        int size = sizes.get(level);
+        Arrays.sort(items, 0, size);
+        int kept = size % 2 == 1 ? 1 : 0;
+        double leftover = items[size - 1];
+        int offset = keepOdd ? 1 : 0;
+        keepOdd = !keepOdd;
+        for (int i = offset; i < size - kept; i += 2) {
+            append(level + 1, items[i]);
+        }
+        sizes.set(level, 0);
+        if (kept == 1) {
+            append(level, leftover);
+        }
+    }
+
+    private int retained() {
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        return retained;
+    }
+
+    private int totalCapacity() {
+        int capacity = 0;
+        for (int level = 0; level < levels.size(); level++) {
+            capacity += capacity(level);
+        }
+        return capacity;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.size() - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a {@link TransactionFilterQuery} was evaluated: its steps in order, each with the rows
+ * the planner expected it to leave and the rows it actually left, summed over all segments.
+ * Index steps are exact; scans are estimated from the number of distinct values and the date
+ * span of each segment. Segments skipped by their zone map are only counted.
+ */
+public class QueryPlan {
+
+    public record Step(String operation, long estimatedRows, long actualRows) {
+    }
+
+    private final Map<String, long[]> steps = new LinkedHashMap<>();
+    private int segments;
+    private int prunedSegments;
+
+    void addSegment(boolean pruned) {
+        segments++;
+        if (pruned) {
+            prunedSegments++;
+        }
+    }
+
+    void add(String operation, long estimatedRows, long actualRows) {
+        long[] rows = steps.computeIfAbsent(operation, key -> new long[2]);
+        rows[0] += estimatedRows;
+        rows[1] += actualRows;
+    }
+
+    /**
+     * Number of segments, i.e. partitions and appended batches, the query was planned over.
+     */
+    public int segments() {
+        return segments;
+    }
+
+    /**
+     * Number of segments skipped because their zone map ruled out any match.
+     */
+    public int prunedSegments() {
+        return prunedSegments;
+    }
+
+    public List<Step> steps() {
+        List<Step> result = new ArrayList<>(steps.size());
+        steps.forEach((operation, rows) -> result.add(new Step(operation, rows[0], rows[1])));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("segments: ").append(segments).append(", pruned by zone map: ").append(prunedSegments).append('\n');
+        for (Step step : steps()) {
+            text.append(step.operation())
+                    .append(" (estimated ").append(step.estimatedRows())
+                    .append(", actual ").append(step.actualRows()).append(" rows)\n");
+        }
+        return text.toString();
+    }
+}
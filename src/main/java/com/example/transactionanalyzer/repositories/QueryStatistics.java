@@ -0,0 +1,36 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals over evaluated {@link TransactionFilterQuery} results: how many were
+ * evaluated, how many rows they read one by one and how many rows matched. Rows answered from
+ * an index without being read, such as category and date ranges or range sums, do not count as
+ * scanned, so the two totals show how much work the indexes save.
+ * <p>
+ * One instance can outlive the repositories that report to it, e.g. across reloads.
+ */
+public class QueryStatistics {
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder rowsMatched = new LongAdder();
+
+    void record(long scanned, long matched) {
+        queries.increment();
+        rowsScanned.add(scanned);
+        rowsMatched.add(matched);
+    }
+
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    public long getRowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    public long getRowsMatched() {
+        return rowsMatched.sum();
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.transactionanalyzer.repositories;
+
+import com.example.transactionanalyzer.exceptions.DatasetReloadException;
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.utils.ErrorMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Repository whose dataset can be replaced while the application is running.
+ * <p>
+ * Each {@link #filterQuery()} runs against the repository that is current when it starts, so a
+ * query in flight keeps using the old dataset after a reload while new queries see the new one.
+ * Readers never lock: a reload builds the new dataset and its indexes on a background thread
+ * and publishes it with a single volatile write.
+ * <p>
+ * When a poll interval is given, the source file is checked on that interval and reloaded once
+ * its size and modification time have changed and then stayed the same for one more poll, so a
+ * file that is still being written is not picked up half way. A file that fails to load is not
+ * retried until it changes again.
+ */
+public class ReloadableTransactionRepository implements TransactionRepository, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadableTransactionRepository.class);
+
+    private final Supplier<TransactionRepository> loader;
+    private final Path sourceFile;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong reloadFailures = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile TransactionRepository current;
+    private volatile Duration lastReloadDuration = Duration.ZERO;
+    private volatile Duration loadDuration;
+    private FileStamp loadedStamp;
+    private FileStamp lastSeenStamp;
+
+    /**
+     * Loads the initial dataset on the calling thread.
+     *
+     * @param loader       builds a complete repository from the source
+     * @param sourceFile   file the dataset is built from, watched for changes
+     * @param pollInterval how often to check the file, or {@link Duration#ZERO} to only reload on demand
+     */
+    public ReloadableTransactionRepository(Supplier<TransactionRepository> loader, Path sourceFile, Duration pollInterval) {
+        this(loader, sourceFile, pollInterval, runnable -> {
+            Thread thread = new Thread(runnable, "transactions-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Same as {@link #ReloadableTransactionRepository(Supplier, Path, Duration)}, running reloads
+     * on a thread from {@code reloadThreadFactory}, e.g. a virtual thread. The thread must not
+     * keep the JVM alive.
+     */
+    public ReloadableTransactionRepository(Supplier<TransactionRepository> loader, Path sourceFile, Duration pollInterval,
+                                           ThreadFactory reloadThreadFactory) {
+        this.loader = loader;
+        this.sourceFile = sourceFile;
+        this.loadedStamp = FileStamp.of(sourceFile);
+        this.lastSeenStamp = loadedStamp;
+        long start = System.nanoTime();
+        this.current = loader.get();
+        this.loadDuration = Duration.ofNanos(System.nanoTime() - start);
+        this.executor = Executors.newSingleThreadScheduledExecutor(reloadThreadFactory);
+        if (!pollInterval.isZero()) {
+            executor.scheduleWithFixedDelay(this::reloadIfChanged,
+                    pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public TransactionFilterQuery filterQuery() {
+        return current.filterQuery();
+    }
+
+    @Override
+    public SortedSet<String> categories() {
+        return current.categories();
+    }
+
+    @Override
+    public NavigableMap<YearMonth, DoubleSummaryStatistics> monthlyRollup(String category, YearMonth from, YearMonth to) {
+        return current.monthlyRollup(category, from, to);
+    }
+
+    @Override
+    public RunningTotals runningTotals() {
+        return current.runningTotals();
+    }
+
+    /**
+     * Appends to the current dataset. Appended transactions live in memory only: a reload
+     * replaces them with the contents of the source file.
+     */
+    @Override
+    public void append(Collection<Transaction> transactions) {
+        current.append(transactions);
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Advances on every reload and every append.
+     */
+    @Override
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Rebuilds the dataset on the reload thread and waits for it to be published.
+     *
+     * @throws DatasetReloadException if the new dataset could not be built; the previous one stays in place
+     */
+    public void reload() {
+        try {
+            executor.submit(this::doReload).get();
+        } catch (ExecutionException e) {
+            throw new DatasetReloadException(ErrorMessages.RELOAD_FAILED.formatted(e.getCause().getMessage()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatasetReloadException(ErrorMessages.RELOAD_FAILED.formatted("interrupted"), e);
+        }
+    }
+
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    public long getReloadFailures() {
+        return reloadFailures.get();
+    }
+
+    public Duration getLastReloadDuration() {
+        return lastReloadDuration;
+    }
+
+    /**
+     * Time taken to build the current dataset, by the initial load or the last reload.
+     */
+    public Duration getLoadDuration() {
+        return loadDuration;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void reloadIfChanged() {
+        FileStamp stamp = FileStamp.of(sourceFile);
+        boolean settled = stamp.equals(lastSeenStamp);
+        lastSeenStamp = stamp;
+        if (settled && !stamp.equals(loadedStamp)) {
+            try {
+                doReload();
+            } catch (RuntimeException e) {
+                log.error("Reloading transactions from {} failed, keeping the current dataset", sourceFile, e);
+            }
+        }
+    }
+
+    private Void doReload() {
+        FileStamp stamp = FileStamp.of(sourceFile);
+        long start = System.nanoTime();
+        TransactionRepository reloaded;
+        try {
+            reloaded = loader.get();
+        } catch (RuntimeException e) {
+            reloadFailures.incrementAndGet();
+            loadedStamp = stamp;
+            throw e;
+        }
+        current = reloaded;
+        generation.incrementAndGet();
+        loadedStamp = stamp;
+        lastReloadDuration = Duration.ofNanos(System.nanoTime() - start);
+        loadDuration = lastReloadDuration;
+        reloadCount.incrementAndGet();
+        log.info("Reloaded {} transactions from {} in {} ms",
+                reloaded.filterQuery().count(), sourceFile, lastReloadDuration.toMillis());
+        return null;
+    }
+
+    private record FileStamp(long size, long lastModified) {
+        static FileStamp of(Path file) {
+            try {
+                return new FileStamp(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                return new FileStamp(-1, -1);
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of row numbers, laid out like a Roaring bitmap: rows are split by
+ * their upper 16 bits into chunks of 65536, and each chunk is stored as a sorted array of its
+ * lower 16 bits while it holds at most {@value #ARRAY_LIMIT} rows and as a 65536-bit bitmap
+ * beyond that. Intersections work chunk by chunk with the cheapest algorithm for each pair of
+ * representations, so their cost follows the smaller operand rather than the row range.
+ */
+final class RowBitmap {
+
+    static final RowBitmap EMPTY = new RowBitmap(new char[0], new Object[0], 0);
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    /**
+     * Upper 16 bits of the rows in each chunk, ascending.
+     */
+    private final char[] keys;
+    /**
+     * Per chunk either a {@code char[]} of lower bits, ascending, or a {@code long[1024]} bitmap.
+     */
+    private final Object[] chunks;
+    private final int cardinality;
+
+    private RowBitmap(char[] keys, Object[] chunks, int cardinality) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Bitmap of {@code rows}, which need not be sorted; the array is sorted in place.
+     */
+    static RowBitmap of(int[] rows) {
+        Arrays.sort(rows);
+        Builder builder = new Builder();
+        for (int row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean contains(int row) {
+        int chunk = Arrays.binarySearch(keys, (char) (row >>> 16));
+        if (chunk < 0) {
+            return false;
+        }
+        char low = (char) row;
+        return chunks[chunk] instanceof long[] words
+                ? (words[low >>> 6] & (1L << low)) != 0
+                : Arrays.binarySearch((char[]) chunks[chunk], low) >= 0;
+    }
+
+    RowBitmap and(RowBitmap other) {
+        char[] resultKeys = new char[Math.min(keys.length, other.keys.length)];
+        Object[] resultChunks = new Object[resultKeys.length];
+        int size = 0;
+        int resultCardinality = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object chunk = and(chunks[i], other.chunks[j]);
+                int chunkCardinality = chunkCardinality(chunk);
+                if (chunkCardinality > 0) {
+                    resultKeys[size] = keys[i];
+                    resultChunks[size++] = chunk;
+                    resultCardinality += chunkCardinality;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new RowBitmap(Arrays.copyOf(resultKeys, size), Arrays.copyOf(resultChunks, size), resultCardinality);
+    }
+
+    /**
+     * The rows in {@code [from, to)}, ascending.
+     */
+    int[] toArray(int from, int to) {
+        int[] rows = new int[Math.min(cardinality, Math.max(0, to - from))];
+        int size = 0;
+        for (int c = 0; c < keys.length; c++) {
+            int base = keys[c] << 16;
+            if (base >= to || base + (1 << 16) <= from) {
+                continue;
+            }
+            if (chunks[c] instanceof long[] words) {
+                for (int w = 0; w < words.length; w++) {
+                    for (long word = words[w]; word != 0; word &= word - 1) {
+                        int row = base + (w << 6) + Long.numberOfTrailingZeros(word);
+                        if (row >= from && row < to) {
+                            rows[size++] = row;
+                        }
+                    }
+                }
+            } else {
+                for (char low : (char[]) chunks[c]) {
+                    int row = base + low;
+                    if (row >= from && row < to) {
+                        rows[size++] = row;
+                    }
+                }
+            }
+        }
+        return size == rows.length ? rows : Arrays.copyOf(rows, size);
+    }
+
+    private static Object and(Object first, Object second) {
+        if (first instanceof long[] firstWords && second instanceof long[] secondWords) {
+            long[] words = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                words[w] = firstWords[w] & secondWords[w];
+                count += Long.bitCount(words[w]);
+            }
+            return count > ARRAY_LIMIT ? words : toArrayChunk(words, count);
+        }
+        if (first instanceof long[] words) {
+            return filter((char[]) second, words);
+        }
+        if (second instanceof long[] words) {
+            return filter((char[]) first, words);
+        }
+        return intersect((char[]) first, (char[]) second);
+    }
+
+    private static char[] filter(char[] values, long[] words) {
+        char[] result = new char[values.length];
+        int size = 0;
+        for (char value : values) {
+            if ((words[value >>> 6] & (1L << value)) != 0) {
+                result[size++] = value;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Merge of two sorted arrays, galloping through the longer one when their sizes differ a lot.
+     */
+    private static char[] intersect(char[] first, char[] second) {
+        if (first.length > second.length) {
+            return intersect(second, first);
+        }
+        char[] result = new char[first.length];
+        int size = 0;
+        if (second.length > 32 * first.length) {
+            int from = 0;
+            for (char value : first) {
+                int found = Arrays.binarySearch(second, from, second.length, value);
+                if (found >= 0) {
+                    result[size++] = value;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+        } else {
+            for (int i = 0, j = 0; i < first.length && j < second.length; ) {
+                if (first[i] < second[j]) {
+                    i++;
+                } else if (first[i] > second[j]) {
+                    j++;
+                } else {
+                    result[size++] = first[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static char[] toArrayChunk(long[] words, int count) {
+        char[] values = new char[count];
+        int size = 0;
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                values[size++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+
+    private static int chunkCardinality(Object chunk) {
+        if (chunk instanceof char[] values) {
+            return values.length;
+        }
+        int count = 0;
+        for (long word : (long[]) chunk) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Builds a bitmap from rows added in ascending order.
+     */
+    static final class Builder {
+
+        private char[] keys = new char[4];
+        private Object[] chunks = new Object[4];
+        private int chunkCount;
+        private int cardinality;
+        private int currentKey = -1;
+        private char[] values = new char[16];
+        private long[] words;
+        private int valueCount;
+
+        void add(int row) {
+            int key = row >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+            char low = (char) row;
+            if (words != null) {
+                words[low >>> 6] |= 1L << low;
+            } else if (valueCount < ARRAY_LIMIT) {
+                if (valueCount == values.length) {
+                    values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, valueCount * 2));
+                }
+                values[valueCount] = low;
+            } else {
+                words = new long[BITMAP_WORDS];
+                for (int i = 0; i < valueCount; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                words[low >>> 6] |= 1L << low;
+            }
+            valueCount++;
+        }
+
+        RowBitmap build() {
+            flush();
+            return new RowBitmap(Arrays.copyOf(keys, chunkCount), Arrays.copyOf(chunks, chunkCount), cardinality);
+        }
+
+        private void flush() {
+            if (valueCount == 0) {
+                return;
+            }
+            if (chunkCount == keys.length) {
+                keys = Arrays.copyOf(keys, chunkCount * 2);
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            keys[chunkCount] = (char) currentKey;
+            chunks[chunkCount++] = words != null ? words : Arrays.copyOf(values, valueCount);
+            cardinality += valueCount;
+            values = new char[16];
+            words = null;
+            valueCount = 0;
+        }
+    }
+}
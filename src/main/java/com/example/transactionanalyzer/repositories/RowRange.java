@@ -0,0 +1,13 @@
+package com.example.transactionanalyzer.repositories;
+
+/**
+ * Half-open range {@code [from, to)} of row positions in a {@link TransactionColumns}.
+ */
+public record RowRange(int from, int to) {
+
+    public static final RowRange EMPTY = new RowRange(0, 0);
+
+    public int size() {
+        return to - from;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AmountAccumulator}s per category and per category and calendar month, kept beside a
+ * repository and updated as transactions are ingested. Open-ended questions such as a
+ * category's all-time total are answered from them in constant time, however many
+ * transactions there are. Categories are matched ignoring case.
+ */
+public class RunningTotals {
+
+    private final ConcurrentHashMap<String, AmountAccumulator> categories = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CategoryMonth, AmountAccumulator> months = new ConcurrentHashMap<>();
+
+    /**
+     * Totals of {@code category}, or {@code null} when nothing was added for it.
+     */
+    public AmountAccumulator category(String category) {
+        return categories.get(TransactionRepositoryImpl.normalizeCategory(category));
+    }
+
+    /**
+     * Totals of {@code category} in {@code month}, or {@code null} when nothing was added for them.
+     */
+    public AmountAccumulator month(String category, YearMonth month) {
+        return months.get(new CategoryMonth(TransactionRepositoryImpl.normalizeCategory(category), month));
+    }
+
+    public void add(String category, LocalDate date, double amount) {
+        String normalized = TransactionRepositoryImpl.normalizeCategory(category);
+        int epochDay = Math.toIntExact(date.toEpochDay());
+        categories.computeIfAbsent(normalized, key -> new AmountAccumulator()).add(amount, epochDay);
+        months.computeIfAbsent(new CategoryMonth(normalized, YearMonth.from(date)), key -> new AmountAccumulator())
+                .add(amount, epochDay);
+    }
+
+    /**
+     * Adds every row of {@code segment}, looking each accumulator up once per category and
+     * month run rather than once per row.
+     */
+    void add(TransactionSegment segment) {
+        TransactionColumns columns = segment.columns();
+        for (String category : segment.categories()) {
+            RowRange range = segment.findByCategory(category);
+            AmountAccumulator categoryTotals = categories.computeIfAbsent(category, key -> new AmountAccumulator());
+            AmountAccumulator monthTotals = null;
+            long monthEnd = Long.MIN_VALUE;
+            for (int row = range.from(); row < range.to(); row++) {
+                int day = columns.epochDay(row);
+                if (day > monthEnd) {
+                    YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+                    monthTotals = months.computeIfAbsent(new CategoryMonth(category, month), key -> new AmountAccumulator());
+                    monthEnd = month.atEndOfMonth().toEpochDay();
+                }
+                double amount = columns.amount(row);
+                categoryTotals.add(amount, day);
+                monthTotals.add(amount, day);
+            }
+        }
+    }
+
+    private record CategoryMonth(String category, YearMonth month) {
+    }
+}
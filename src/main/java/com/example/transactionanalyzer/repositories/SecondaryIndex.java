@@ -0,0 +1,132 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Indexes of one segment for the columns its row order does not cover: a posting bitmap of the
+ * rows of every vendor and every product, keyed ignoring case, and the rows sorted by amount.
+ * Each lookup returns a {@link RowBitmap}, so any combination of them is answered by
+ * intersecting bitmaps, in time that follows the sizes of the postings rather than the segment.
+ */
+class SecondaryIndex {
+
+    private final Map<String, RowBitmap> rowsByVendor;
+    private final Map<String, RowBitmap> rowsByProduct;
+    private final double[] sortedAmounts;
+    private final int[] rowsByAmount;
+
+    SecondaryIndex(TransactionColumns columns) {
+        this.rowsByVendor = postings(columns.vendors(), columns::vendorId, columns.size());
+        this.rowsByProduct = postings(columns.products(), columns::productId, columns.size());
+        this.sortedAmounts = new double[columns.size()];
+        for (int row = 0; row < sortedAmounts.length; row++) {
+            sortedAmounts[row] = columns.amount(row);
+        }
+        Arrays.sort(sortedAmounts);
+        // Each row goes to the next free slot of its amount's run, so rows of equal amount stay
+        // in row order without sorting boxed indexes.
+        this.rowsByAmount = new int[sortedAmounts.length];
+        int[] filled = new int[sortedAmounts.length];
+        for (int row = 0; row < rowsByAmount.length; row++) {
+            int slot = firstAtOrAfter(sortedAmounts, columns.amount(row));
+            rowsByAmount[slot + filled[slot]++] = row;
+        }
+    }
+
+    RowBitmap vendor(String vendor) {
+        return rowsByVendor.getOrDefault(vendor.toLowerCase(Locale.ROOT), RowBitmap.EMPTY);
+    }
+
+    RowBitmap product(String product) {
+        return rowsByProduct.getOrDefault(product.toLowerCase(Locale.ROOT), RowBitmap.EMPTY);
+    }
+
+    /**
+     * Number of rows with an amount in {@code [min, max]}, found by binary search.
+     */
+    int countAmountRange(double min, double max) {
+        return Math.max(0, firstAbove(max) - firstAtLeast(min));
+    }
+
+    /**
+     * Rows with an amount in {@code [min, max]}.
+     */
+    RowBitmap amountRange(double min, double max) {
+        int from = firstAtLeast(min);
+        int to = firstAbove(max);
+        if (from >= to) {
+            return RowBitmap.EMPTY;
+        }
+        return RowBitmap.of(Arrays.copyOfRange(rowsByAmount, from, to));
+    }
+
+    private static int firstAtOrAfter(double[] sorted, double amount) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(sorted[mid], amount) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstAtLeast(double amount) {
+        int low = 0;
+        int high = sortedAmounts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedAmounts[mid] < amount) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstAbove(double amount) {
+        int low = 0;
+        int high = sortedAmounts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedAmounts[mid] <= amount) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Rows are visited in ascending order, so every posting is built append-only. Dictionary
+     * values that differ only in case share one posting. Only values occurring in the segment
+     * get a posting: partitions share the dataset's dictionaries, most of whose values a
+     * single partition may never use.
+     */
+    private static Map<String, RowBitmap> postings(StringDictionary dictionary, IntUnaryOperator idOf, int size) {
+        Map<Integer, RowBitmap.Builder> byId = new HashMap<>();
+        Map<String, RowBitmap.Builder> byKey = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            RowBitmap.Builder builder = byId.computeIfAbsent(idOf.applyAsInt(row), id -> {
+                String value = dictionary.valueOf(id);
+                return value == null ? null
+                        : byKey.computeIfAbsent(value.toLowerCase(Locale.ROOT), key -> new RowBitmap.Builder());
+            });
+            if (builder != null) {
+                builder.add(row);
+            }
+        }
+        Map<String, RowBitmap> postings = new HashMap<>(byKey.size() * 2);
+        byKey.forEach((key, builder) -> postings.put(key, builder.build()));
+        return postings;
+    }
+}
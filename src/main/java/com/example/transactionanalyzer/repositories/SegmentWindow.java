@@ -0,0 +1,252 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * The rows of one {@link TransactionSegment} that match a query so far: either a contiguous
+ * run of rows or an explicit row list once a predicate had to be evaluated row by row.
+ */
+class SegmentWindow {
+
+    private final TransactionSegment segment;
+    private final TransactionColumns columns;
+    private int[] rows;
+    private int from;
+    private int to;
+    private boolean unfiltered = true;
+    private boolean sortedByDate;
+    private long scanned;
+
+    SegmentWindow(TransactionSegment segment) {
+        this.segment = segment;
+        this.columns = segment.columns();
+        this.from = 0;
+        this.to = columns.size();
+    }
+
+    private SegmentWindow(SegmentWindow other) {
+        this.segment = other.segment;
+        this.columns = other.columns;
+        this.rows = other.rows;
+        this.from = other.from;
+        this.to = other.to;
+        this.unfiltered = other.unfiltered;
+        this.sortedByDate = other.sortedByDate;
+        this.scanned = other.scanned;
+    }
+
+    /**
+     * Copy that is not affected by further filters on this window. Row lists are replaced, never
+     * modified in place, so they can be shared.
+     */
+    SegmentWindow snapshot() {
+        return new SegmentWindow(this);
+    }
+
+    TransactionColumns columns() {
+        return columns;
+    }
+
+    TransactionSegment segment() {
+        return segment;
+    }
+
+    boolean isSortedByDate() {
+        return sortedByDate;
+    }
+
+    void byCategory(String category) {
+        if (unfiltered) {
+            RowRange range = segment.findByCategory(category);
+            from = range.from();
+            to = range.to();
+            sortedByDate = true;
+            unfiltered = false;
+        } else {
+            boolean[] matches = columns.categories().matchesIgnoringCase(category);
+            filter(row -> matches[columns.categoryId(row)]);
+        }
+    }
+
+    void byDateRange(long startDay, long endDay) {
+        if (sortedByDate) {
+            int start = firstOnOrAfter(startDay);
+            int end = firstOnOrAfter(endDay == Long.MAX_VALUE ? endDay : endDay + 1);
+            from = start;
+            to = Math.max(start, end);
+            unfiltered = false;
+        } else {
+            filter(row -> columns.epochDay(row) >= startDay && columns.epochDay(row) <= endDay);
+        }
+    }
+
+    /**
+     * Drops the rows dated after {@code epochDay} and the first {@code skip} rows dated
+     * {@code epochDay} in latest-first order, i.e. from the end of the window. The window must
+     * be sorted by date.
+     *
+     * @return the number of rows dated {@code epochDay} that were dropped
+     */
+    int dropLatestThrough(long epochDay, int skip) {
+        to = firstOnOrAfter(epochDay + 1);
+        int dropped = Math.min(skip, to - firstOnOrAfter(epochDay));
+        to -= dropped;
+        unfiltered = false;
+        return dropped;
+    }
+
+    /**
+     * Keeps only the rows that are in {@code bitmap}, keeping their order. A contiguous window
+     * is read straight from the bitmap without visiting its other rows.
+     */
+    void restrictTo(RowBitmap bitmap) {
+        if (rows == null) {
+            rows = bitmap.toArray(from, to);
+            from = 0;
+            to = rows.length;
+            unfiltered = false;
+        } else {
+            filter(bitmap::contains);
+        }
+    }
+
+    /**
+     * Replaces the window with the rows matching {@code predicate}, keeping their order.
+     */
+    void filter(IntPredicate predicate) {
+        scanned += count();
+        int[] matching = new int[count()];
+        int matches = 0;
+        for (int position = from; position < to; position++) {
+            int row = rowAt(position);
+            if (predicate.test(row)) {
+                matching[matches++] = row;
+            }
+        }
+        rows = Arrays.copyOf(matching, matches);
+        from = 0;
+        to = matches;
+        unfiltered = false;
+    }
+
+    /**
+     * Stable sort of the window by date. Same-day rows are reversed so that reading the
+     * window latest-first keeps them in their current order.
+     */
+    void sortByDate() {
+        if (sortedByDate) {
+            return;
+        }
+        scanned += count();
+        long[] keys = new long[count()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) columns.epochDay(rowAt(from + i)) << 32) | (keys.length - 1 - i);
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = rowAt(from + keys.length - 1 - (int) keys[i]);
+        }
+        rows = sorted;
+        from = 0;
+        to = sorted.length;
+        sortedByDate = true;
+    }
+
+    int count() {
+        return to - from;
+    }
+
+    /**
+     * Rows read one by one so far, by filters, sorting and aggregates that could not be
+     * answered from an index.
+     */
+    long scanned() {
+        return scanned;
+    }
+
+    /**
+     * Counts the window's rows as scanned by an operation that reads each of them.
+     */
+    void markScanned() {
+        scanned += count();
+    }
+
+    /**
+     * Row at the {@code index}-th position of the window, counting from the oldest end when the
+     * window is sorted by date.
+     */
+    int row(int index) {
+        return rowAt(from + index);
+    }
+
+    double sum() {
+        if (rows == null) {
+            return columns.sum(from, to);
+        }
+        scanned += count();
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += columns.amount(rows[i]);
+        }
+        return sum;
+    }
+
+    double max() {
+        if (rows == null) {
+            return columns.max(from, to);
+        }
+        scanned += count();
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, columns.amount(rows[i]));
+        }
+        return max;
+    }
+
+    double min() {
+        if (rows == null) {
+            return columns.min(from, to);
+        }
+        scanned += count();
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, columns.amount(rows[i]));
+        }
+        return min;
+    }
+
+    /**
+     * Adds the window's amounts to {@code sketch}, from the segment's bucket sketches while the
+     * window is still a contiguous run of rows.
+     */
+    void addAmountsTo(QuantileSketch sketch) {
+        if (rows == null) {
+            segment.sketchIndex().addTo(sketch, from, to);
+        } else {
+            scanned += count();
+            for (int i = from; i < to; i++) {
+                sketch.add(columns.amount(rows[i]));
+            }
+        }
+    }
+
+    private int rowAt(int position) {
+        return rows == null ? position : rows[position];
+    }
+
+    private int firstOnOrAfter(long epochDay) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (columns.epochDay(rowAt(mid)) < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
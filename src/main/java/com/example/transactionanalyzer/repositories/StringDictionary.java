@@ -0,0 +1,64 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for repeated column values: each distinct string is stored once
+ * and rows refer to it by a dense int id.
+ * <p>
+ * Values are also grouped by their lower-cased form, so a case-insensitive filter resolves to
+ * the matching ids with one lookup and then compares ids per row instead of strings.
+ */
+public class StringDictionary {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, int[]> idsByFoldedValue = new HashMap<>();
+
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+            if (value != null) {
+                int[] sameFolded = idsByFoldedValue.getOrDefault(fold(value), NO_IDS);
+                int[] extended = Arrays.copyOf(sameFolded, sameFolded.length + 1);
+                extended[sameFolded.length] = id;
+                idsByFoldedValue.put(fold(value), extended);
+            }
+        }
+        return id;
+    }
+
+    public String valueOf(int id) {
+        return values.get(id);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Flags indexed by id, set for the values equal to {@code value} ignoring case, for use as
+     * a per-row membership test.
+     */
+    boolean[] matchesIgnoringCase(String value) {
+        boolean[] matches = new boolean[size()];
+        for (int id : idsByFoldedValue.getOrDefault(fold(value), NO_IDS)) {
+            matches[id] = true;
+        }
+        return matches;
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,414 @@
+package com.example.transactionanalyzer.repositories;
+
+import com.example.transactionanalyzer.model.Transaction;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented, immutable storage of transactions. Amounts and dates are kept in primitive
+ * columns and the string fields are dictionary encoded, so no {@link Transaction} objects are
+ * retained; they are only materialized on demand by {@link #toTransaction(int)}.
+ * <p>
+ * Columns are buffers so that the same store can sit on heap arrays or on a memory-mapped
+ * {@link TransactionSnapshot}. Rows are ordered by normalized category, then by date, and
+ * range sums and extremes over the amounts are served by an {@link AmountIndex}.
+ */
+public class TransactionColumns {
+
+    private final DoubleBuffer amounts;
+    private final IntBuffer epochDays;
+    private final IntBuffer categoryIds;
+    private final IntBuffer vendorIds;
+    private final IntBuffer productIds;
+    private final StringDictionary categories;
+    private final StringDictionary vendors;
+    private final StringDictionary products;
+    private final AmountIndex amountIndex;
+
+    TransactionColumns(DoubleBuffer amounts, IntBuffer epochDays, IntBuffer categoryIds, IntBuffer vendorIds,
+                       IntBuffer productIds, StringDictionary categories, StringDictionary vendors,
+                       StringDictionary products, AmountIndex amountIndex) {
+        this.amounts = amounts;
+        this.epochDays = epochDays;
+        this.categoryIds = categoryIds;
+        this.vendorIds = vendorIds;
+        this.productIds = productIds;
+        this.categories = categories;
+        this.vendors = vendors;
+        this.products = products;
+        this.amountIndex = amountIndex;
+    }
+
+    public int size() {
+        return amounts.limit();
+    }
+
+    public double amount(int row) {
+        return amounts.get(row);
+    }
+
+    public int epochDay(int row) {
+        return epochDays.get(row);
+    }
+
+    public int categoryId(int row) {
+        return categoryIds.get(row);
+    }
+
+    public int vendorId(int row) {
+        return vendorIds.get(row);
+    }
+
+    public int productId(int row) {
+        return productIds.get(row);
+    }
+
+    public String category(int row) {
+        return categories.valueOf(categoryIds.get(row));
+    }
+
+    public String vendor(int row) {
+        return vendors.valueOf(vendorIds.get(row));
+    }
+
+    public String product(int row) {
+        return products.valueOf(productIds.get(row));
+    }
+
+    public Transaction toTransaction(int row) {
+        Transaction transaction = new Transaction();
+        transaction.setDate(LocalDate.ofEpochDay(epochDays.get(row)));
+        transaction.setVendor(vendor(row));
+        transaction.setProduct(product(row));
+        transaction.setAmount(amounts.get(row));
+        transaction.setCategory(category(row));
+        return transaction;
+    }
+
+    public double sum(int from, int to) {
+        return amountIndex.sum(from, to);
+    }
+
+    public double min(int from, int to) {
+        return amountIndex.min(from, to);
+    }
+
+    public double max(int from, int to) {
+        return amountIndex.max(from, to);
+    }
+
+    /**
+     * Rows {@code [from, to)} as columns of their own, sharing this store's buffers, dictionaries
+     * and amount index rather than copying them. Row numbers of the slice start at 0.
+     */
+    TransactionColumns slice(int from, int to) {
+        return new TransactionColumns(amounts.slice(from, to - from), epochDays.slice(from, to - from),
+                categoryIds.slice(from, to - from), vendorIds.slice(from, to - from), productIds.slice(from, to - from),
+                categories, vendors, products, amountIndex.slice(from));
+    }
+
+    DoubleBuffer amounts() {
+        return amounts.duplicate();
+    }
+
+    IntBuffer epochDays() {
+        return epochDays.duplicate();
+    }
+
+    IntBuffer categoryIds() {
+        return categoryIds.duplicate();
+    }
+
+    IntBuffer vendorIds() {
+        return vendorIds.duplicate();
+    }
+
+    IntBuffer productIds() {
+        return productIds.duplicate();
+    }
+
+    StringDictionary categories() {
+        return categories;
+    }
+
+    StringDictionary vendors() {
+        return vendors;
+    }
+
+    StringDictionary products() {
+        return products;
+    }
+
+    AmountIndex amountIndex() {
+        return amountIndex;
+    }
+
+    public static class Builder implements Consumer<Transaction> {
+
+        private double[] amounts;
+        private int[] epochDays;
+        private int[] categoryIds;
+        private int[] vendorIds;
+        private int[] productIds;
+        private final StringDictionary categories = new StringDictionary();
+        private final StringDictionary vendors = new StringDictionary();
+        private final StringDictionary products = new StringDictionary();
+        private int size;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            amounts = new double[capacity];
+            epochDays = new int[capacity];
+            categoryIds = new int[capacity];
+            vendorIds = new int[capacity];
+            productIds = new int[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @throws IllegalArgumentException when the transaction has no date or no category,
+         *                                  which rows are partitioned and grouped by
+         */
+        public Builder add(Transaction transaction) {
+            if (transaction.getDate() == null) {
+                throw new IllegalArgumentException("Transaction " + size + " has no date");
+            }
+            if (transaction.getCategory() == null) {
+                throw new IllegalArgumentException("Transaction " + size + " has no category");
+            }
+            if (size == amounts.length) {
+                grow();
+            }
+            amounts[size] = transaction.getAmount();
+            epochDays[size] = Math.toIntExact(transaction.getDate().toEpochDay());
+            categoryIds[size] = categories.idOf(transaction.getCategory());
+            vendorIds[size] = vendors.idOf(transaction.getVendor());
+            productIds[size] = products.idOf(transaction.getProduct());
+            size++;
+            return this;
+        }
+
+        public Builder addAll(Collection<Transaction> transactions) {
+            transactions.forEach(this::add);
+            return this;
+        }
+
+        /**
+         * Appends the rows of another builder, e.g. one that was filled from a different chunk
+         * of the same file, re-encoding its dictionary ids.
+         */
+        public Builder addAll(Builder other) {
+            while (amounts.length < size + other.size) {
+                grow();
+            }
+            int[] categoryIdMap = remap(other.categories, categories);
+            int[] vendorIdMap = remap(other.vendors, vendors);
+            int[] productIdMap = remap(other.products, products);
+            System.arraycopy(other.amounts, 0, amounts, size, other.size);
+            System.arraycopy(other.epochDays, 0, epochDays, size, other.size);
+            for (int row = 0; row < other.size; row++) {
+                categoryIds[size + row] = categoryIdMap[other.categoryIds[row]];
+                vendorIds[size + row] = vendorIdMap[other.vendorIds[row]];
+                productIds[size + row] = productIdMap[other.productIds[row]];
+            }
+            size += other.size;
+            return this;
+        }
+
+        /**
+         * Appends the rows of built columns. Rows are read back to front: built columns hold
+         * same-day rows in reverse insertion order, so this restores their insertion order and
+         * a later {@link #build()} orders them exactly as the original columns did.
+         */
+        public Builder addAll(TransactionColumns columns) {
+            while (amounts.length < size + columns.size()) {
+                grow();
+            }
+            int[] categoryIdMap = remap(columns.categories, categories);
+            int[] vendorIdMap = remap(columns.vendors, vendors);
+            int[] productIdMap = remap(columns.products, products);
+            for (int row = columns.size() - 1; row >= 0; row--) {
+                amounts[size] = columns.amounts.get(row);
+                epochDays[size] = columns.epochDays.get(row);
+                categoryIds[size] = categoryIdMap[columns.categoryIds.get(row)];
+                vendorIds[size] = vendorIdMap[columns.vendorIds.get(row)];
+                productIds[size] = productIdMap[columns.productIds.get(row)];
+                size++;
+            }
+            return this;
+        }
+
+        @Override
+        public void accept(Transaction transaction) {
+            add(transaction);
+        }
+
+        /**
+         * Sorts and trims the columns. Each builder column is released as soon as its sorted copy
+         * exists, so building needs roughly one extra column of memory; the builder cannot be
+         * reused afterwards.
+         */
+        public TransactionColumns build() {
+            return build(PartitionGranularity.NONE);
+        }
+
+        /**
+         * Same as {@link #build()}, with rows ordered by {@code granularity} period first, so each
+         * period is one contiguous run of rows that {@link #slice(int, int)} can cut out.
+         */
+        public TransactionColumns build(PartitionGranularity granularity) {
+            int[] order = sortedOrder(granularity);
+            double[] sortedAmounts = permute(amounts, order);
+            amounts = null;
+            int[] sortedEpochDays = permute(epochDays, order);
+            epochDays = null;
+            int[] sortedCategoryIds = permute(categoryIds, order);
+            categoryIds = null;
+            int[] sortedVendorIds = permute(vendorIds, order);
+            vendorIds = null;
+            int[] sortedProductIds = permute(productIds, order);
+            productIds = null;
+            return new TransactionColumns(DoubleBuffer.wrap(sortedAmounts), IntBuffer.wrap(sortedEpochDays),
+                    IntBuffer.wrap(sortedCategoryIds), IntBuffer.wrap(sortedVendorIds), IntBuffer.wrap(sortedProductIds),
+                    categories, vendors, products, new AmountIndex(sortedAmounts));
+        }
+
+        private void grow() {
+            int capacity = amounts.length * 2;
+            amounts = Arrays.copyOf(amounts, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            vendorIds = Arrays.copyOf(vendorIds, capacity);
+            productIds = Arrays.copyOf(productIds, capacity);
+        }
+
+        /**
+         * Orders rows by period, then normalized category, then date. Same-day rows end up in
+         * reverse insertion order, so reading a category latest-first keeps their original order.
+         */
+        private int[] sortedOrder(PartitionGranularity granularity) {
+            StringDictionary normalizedCategories = new StringDictionary();
+            int[] groupOfCategory = new int[categories.size()];
+            for (int id = 0; id < categories.size(); id++) {
+                groupOfCategory[id] = normalizedCategories.idOf(
+                        TransactionRepositoryImpl.normalizeCategory(categories.valueOf(id)));
+            }
+            int categoryGroups = normalizedCategories.size();
+
+            int[] groupOfRow = new int[size];
+            int minKey = 0;
+            int maxKey = 0;
+            if (granularity != PartitionGranularity.NONE && size > 0) {
+                minKey = Integer.MAX_VALUE;
+                maxKey = Integer.MIN_VALUE;
+                for (int row = 0; row < size; row++) {
+                    groupOfRow[row] = granularity.keyOf(epochDays[row]);
+                    minKey = Math.min(minKey, groupOfRow[row]);
+                    maxKey = Math.max(maxKey, groupOfRow[row]);
+                }
+            }
+            long spannedGroups = ((long) maxKey - minKey + 1) * categoryGroups;
+            int groups;
+            if (spannedGroups <= Math.max(size, categoryGroups)) {
+                for (int row = 0; row < size; row++) {
+                    groupOfRow[row] = (groupOfRow[row] - minKey) * categoryGroups + groupOfCategory[categoryIds[row]];
+                }
+                groups = (int) spannedGroups;
+            } else {
+                groups = rankGroups(groupOfRow, groupOfCategory, categoryGroups);
+            }
+
+            int[] groupStart = new int[groups + 1];
+            for (int row = 0; row < size; row++) {
+                groupStart[groupOfRow[row] + 1]++;
+            }
+            for (int group = 0; group < groups; group++) {
+                groupStart[group + 1] += groupStart[group];
+            }
+
+            int[] order = new int[size];
+            int[] next = Arrays.copyOf(groupStart, groups);
+            for (int row = size - 1; row >= 0; row--) {
+                order[next[groupOfRow[row]]++] = row;
+            }
+            for (int group = 0; group < groups; group++) {
+                sortByDate(order, groupStart[group], groupStart[group + 1]);
+            }
+            return order;
+        }
+
+        /**
+         * Replaces each row's period key in {@code groupOfRow} with the rank of its period and
+         * category among those that occur, and returns how many occur. Used when the periods
+         * are sparse, e.g. one outlier dated decades away, where a slot for every period in
+         * between would cost far more than sorting.
+         */
+        private int rankGroups(int[] groupOfRow, int[] groupOfCategory, int categoryGroups) {
+            long[] keyOfRow = new long[size];
+            for (int row = 0; row < size; row++) {
+                keyOfRow[row] = (long) groupOfRow[row] * categoryGroups + groupOfCategory[categoryIds[row]];
+            }
+            long[] keys = keyOfRow.clone();
+            Arrays.sort(keys);
+            int groups = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (i == 0 || keys[i] != keys[groups - 1]) {
+                    keys[groups++] = keys[i];
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                groupOfRow[row] = Arrays.binarySearch(keys, 0, groups, keyOfRow[row]);
+            }
+            return groups;
+        }
+
+        private void sortByDate(int[] order, int from, int to) {
+            long[] keys = new long[to - from];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = ((long) epochDays[order[from + i]] << 32) | i;
+            }
+            Arrays.sort(keys);
+            int[] sorted = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                sorted[i] = order[from + (int) keys[i]];
+            }
+            System.arraycopy(sorted, 0, order, from, sorted.length);
+        }
+
+        private static int[] remap(StringDictionary from, StringDictionary to) {
+            int[] ids = new int[from.size()];
+            for (int id = 0; id < ids.length; id++) {
+                ids[id] = to.idOf(from.valueOf(id));
+            }
+            return ids;
+        }
+
+        private static double[] permute(double[] values, int[] order) {
+            double[] permuted = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                permuted[i] = values[order[i]];
+            }
+            return permuted;
+        }
+
+        private static int[] permute(int[] values, int[] order) {
+            int[] permuted = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                permuted[i] = values[order[i]];
+            }
+            return permuted;
+        }
+    }
+}
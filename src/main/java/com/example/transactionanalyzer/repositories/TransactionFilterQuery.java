@@ -1,58 +1,786 @@
 package com.example.transactionanalyzer.repositories;
 
 import com.example.transactionanalyzer.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
 
+/**
+ * Lazy query over the repository's segments. The filter methods only record predicates and
+ * ordering; the first terminal operation plans and evaluates them per segment:
+ * <ol>
+ *     <li>segments whose zone map shows no rows of the first category in the date range are
+ *     skipped entirely,</li>
+ *     <li>the category index narrows the segment to one run of rows,</li>
+ *     <li>a date range inside that run is found by binary search, since it is date-ordered,</li>
+ *     <li>vendor, product and amount filters that the segment's {@link SecondaryIndex} answers
+ *     with fewer rows than are left are looked up there, and their posting bitmaps are
+ *     intersected with each other and with the rows left,</li>
+ *     <li>every remaining predicate is evaluated in a single fused pass over the rows left,
+ *     comparing dictionary ids rather than strings,</li>
+ *     <li>sorting is skipped when the rows are already date-ordered.</li>
+ * </ol>
+ * Transactions are only materialized by {@link #getTransactions()} and {@link #iterator()}.
+ * Changing the query after a terminal operation plans it again. {@link #explain()} shows the
+ * chosen plan with estimated and actual row counts.
+ * <p>
+ * Each terminal operation other than {@link #count()} reports the rows it scanned and matched
+ * to the repository's {@link QueryStatistics}.
+ */
 public class TransactionFilterQuery {
 
-    private final List<Transaction> originalTransactions;
-    private final List<Transaction> filteredTransactions;
+    private static final Logger log = LoggerFactory.getLogger(TransactionFilterQuery.class);
 
-    public TransactionFilterQuery(List<Transaction> transactions) {
-        this.originalTransactions = transactions;
-        this.filteredTransactions = new ArrayList<Transaction>(transactions);
+    private final List<TransactionSegment> segments;
+    private final QueryStatistics statistics;
+    private final List<String> categories = new ArrayList<>();
+    private final List<String> vendors = new ArrayList<>();
+    private final List<String> products = new ArrayList<>();
+    private long startDay = Long.MIN_VALUE;
+    private long endDay = Long.MAX_VALUE;
+    private double minAmount = Double.NEGATIVE_INFINITY;
+    private double maxAmount = Double.POSITIVE_INFINITY;
+    private boolean latestFirst;
+    private LocalDate continueDate;
+    private int continueSequence;
+    private List<SegmentWindow> windows;
+    private QueryPlan plan;
+    private String categoryStep;
+    private String dateStep;
+
+    TransactionFilterQuery(List<TransactionSegment> segments, QueryStatistics statistics) {
+        this.segments = segments;
+        this.statistics = statistics;
     }
 
     public TransactionFilterQuery byCategory(String category) {
         if (category != null) {
-            filteredTransactions.removeIf(t -> !t.getCategory().equalsIgnoreCase(category));
+            categories.add(category);
+            invalidate();
         }
         return this;
     }
 
     public TransactionFilterQuery byDateRange(LocalDate startDate, LocalDate endDate) {
-        if (startDate != null || endDate != null) {
-            filteredTransactions.removeIf(t -> (startDate != null && t.getDate().isBefore(startDate)) ||
-                    (endDate != null && t.getDate().isAfter(endDate)));
+        if (startDate != null) {
+            startDay = Math.max(startDay, startDate.toEpochDay());
+        }
+        if (endDate != null) {
+            endDay = Math.min(endDay, endDate.toEpochDay());
         }
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Keeps the transactions with an amount between {@code minAmount} and {@code maxAmount},
+     * inclusive; a null bound is open.
+     */
+    public TransactionFilterQuery byAmountRange(Double minAmount, Double maxAmount) {
+        if (minAmount != null) {
+            this.minAmount = Math.max(this.minAmount, minAmount);
+        }
+        if (maxAmount != null) {
+            this.maxAmount = Math.min(this.maxAmount, maxAmount);
+        }
+        invalidate();
         return this;
     }
 
     public TransactionFilterQuery byProduct(String product) {
         if (product != null) {
-            filteredTransactions.removeIf(t -> !t.getProduct().equalsIgnoreCase(product));
+            products.add(product);
+            invalidate();
         }
         return this;
     }
 
     public TransactionFilterQuery byVendor(String vendor) {
         if (vendor != null) {
-            filteredTransactions.removeIf(t -> !t.getVendor().equalsIgnoreCase(vendor));
+            vendors.add(vendor);
+            invalidate();
         }
         return this;
     }
 
     public TransactionFilterQuery sortByLatest() {
-        filteredTransactions.sort(Comparator.comparing(Transaction::getDate).reversed());
+        latestFirst = true;
+        invalidate();
         return this;
     }
 
+    /**
+     * Continues a latest-first read: keeps only what comes after the {@code sequence}-th
+     * transaction dated {@code date}, counting from 1, so the pair of the last transaction
+     * returned and its position within its day is a stable keyset cursor. Later appends only
+     * add rows after the existing ones of the same day, so a cursor stays valid across them.
+     * Applied after all filters.
+     */
+    public TransactionFilterQuery continueAfter(LocalDate date, int sequence) {
+        latestFirst = true;
+        continueDate = date;
+        continueSequence = sequence;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * The plan this query is evaluated with, planning it if no terminal operation has yet.
+     */
+    public QueryPlan explain() {
+        windows();
+        return plan;
+    }
+
+    private void invalidate() {
+        windows = null;
+        plan = null;
+    }
+
+    private List<SegmentWindow> windows() {
+        if (windows == null) {
+            QueryPlan segmentPlans = new QueryPlan();
+            List<SegmentWindow> planned = new ArrayList<>(segments.size());
+            String category = categories.isEmpty() ? null : categories.get(0);
+            categoryStep = category == null ? null : "category index: " + TransactionRepositoryImpl.normalizeCategory(category);
+            dateStep = "date range binary search: " + dateRangeLabel();
+            for (TransactionSegment segment : segments) {
+                if (segment.mayContain(category, startDay, endDay)) {
+                    segmentPlans.addSegment(false);
+                    planned.add(planSegment(segment, segmentPlans));
+                } else {
+                    segmentPlans.addSegment(true);
+                }
+            }
+            if (continueDate != null) {
+                long before = planned.stream().mapToLong(SegmentWindow::count).sum();
+                int skip = continueSequence;
+                for (SegmentWindow window : planned) {
+                    skip -= window.dropLatestThrough(continueDate.toEpochDay(), skip);
+                }
+                long after = planned.stream().mapToLong(SegmentWindow::count).sum();
+                segmentPlans.add("keyset seek after " + continueDate + " #" + continueSequence, before, after);
+            }
+            windows = planned;
+            plan = segmentPlans;
+            if (log.isDebugEnabled()) {
+                log.debug("Query plan:\n{}", plan);
+            }
+        }
+        return windows;
+    }
+
+    private SegmentWindow planSegment(TransactionSegment segment, QueryPlan plan) {
+        SegmentWindow window = new SegmentWindow(segment);
+        List<String> scannedCategories = categories;
+        if (categories.isEmpty()) {
+            plan.add("all rows", window.count(), window.count());
+        } else {
+            window.byCategory(categories.get(0));
+            plan.add(categoryStep, window.count(), window.count());
+            scannedCategories = categories.subList(1, categories.size());
+        }
+
+        boolean hasDateRange = startDay != Long.MIN_VALUE || endDay != Long.MAX_VALUE;
+        boolean scanDates = false;
+        if (hasDateRange && window.isSortedByDate()) {
+            window.byDateRange(startDay, endDay);
+            plan.add(dateStep, window.count(), window.count());
+        } else {
+            scanDates = hasDateRange;
+        }
+
+        List<String> scannedVendors = vendors;
+        List<String> scannedProducts = products;
+        boolean hasAmountRange = minAmount != Double.NEGATIVE_INFINITY || maxAmount != Double.POSITIVE_INFINITY;
+        boolean scanAmounts = hasAmountRange;
+        if (!vendors.isEmpty() || !products.isEmpty() || hasAmountRange) {
+            List<IndexLookup> used = planIndexLookups(segment.secondaryIndex(), window.count(), hasAmountRange);
+            if (!used.isEmpty()) {
+                scannedVendors = new ArrayList<>(vendors);
+                scannedProducts = new ArrayList<>(products);
+                RowBitmap rows = null;
+                double selectivity = 1;
+                List<String> terms = new ArrayList<>();
+                for (IndexLookup lookup : used) {
+                    plan.add(lookup.kind() + " index: " + lookup.label(), lookup.cardinality(), lookup.cardinality());
+                    RowBitmap next = lookup.rows().get();
+                    rows = rows == null ? next : rows.and(next);
+                    selectivity *= segment.size() == 0 ? 0 : (double) lookup.cardinality() / segment.size();
+                    terms.add(lookup.kind() + "=" + lookup.label());
+                    switch (lookup.kind()) {
+                        case "vendor" -> scannedVendors.remove(lookup.value());
+                        case "product" -> scannedProducts.remove(lookup.value());
+                        default -> scanAmounts = false;
+                    }
+                }
+                long estimate = Math.round(window.count() * selectivity);
+                window.restrictTo(rows);
+                plan.add("bitmap intersection: " + String.join(", ", terms), estimate, window.count());
+            }
+        }
+
+        TransactionColumns columns = window.columns();
+        IntPredicate fused = null;
+        double selectivity = 1;
+        List<String> terms = new ArrayList<>();
+        for (String category : scannedCategories) {
+            boolean[] matches = columns.categories().matchesIgnoringCase(category);
+            fused = and(fused, row -> matches[columns.categoryId(row)]);
+            selectivity *= fraction(matches);
+            terms.add("category=" + TransactionRepositoryImpl.normalizeCategory(category));
+        }
+        for (String vendor : scannedVendors) {
+            boolean[] matches = columns.vendors().matchesIgnoringCase(vendor);
+            fused = and(fused, row -> matches[columns.vendorId(row)]);
+            selectivity *= fraction(matches);
+            terms.add("vendor=" + vendor.toLowerCase(Locale.ROOT));
+        }
+        for (String product : scannedProducts) {
+            boolean[] matches = columns.products().matchesIgnoringCase(product);
+            fused = and(fused, row -> matches[columns.productId(row)]);
+            selectivity *= fraction(matches);
+            terms.add("product=" + product.toLowerCase(Locale.ROOT));
+        }
+        if (scanAmounts) {
+            double min = minAmount;
+            double max = maxAmount;
+            fused = and(fused, row -> columns.amount(row) >= min && columns.amount(row) <= max);
+            selectivity *= segment.size() == 0 ? 0
+                    : (double) segment.secondaryIndex().countAmountRange(min, max) / segment.size();
+            terms.add("amount=" + amountRangeLabel());
+        }
+        if (scanDates) {
+            long start = startDay;
+            long end = endDay;
+            fused = and(fused, row -> columns.epochDay(row) >= start && columns.epochDay(row) <= end);
+            selectivity *= dateFraction(segment);
+            terms.add("date=" + dateRangeLabel());
+        }
+        if (fused != null) {
+            long estimate = Math.round(window.count() * selectivity);
+            window.filter(fused);
+            plan.add("fused scan: " + String.join(", ", terms), estimate, window.count());
+        }
+
+        if (latestFirst) {
+            if (window.isSortedByDate()) {
+                plan.add("sort by date skipped: already date-ordered", window.count(), window.count());
+            } else {
+                window.sortByDate();
+                plan.add("sort by date", window.count(), window.count());
+            }
+        }
+        return window;
+    }
+
+    /**
+     * The secondary index lookups worth doing for this segment: those leaving fewer rows than
+     * the window already has, smallest first, so the intersection starts from the most
+     * selective posting. Cardinalities are exact, as postings know their size and the amount
+     * range is counted by binary search before any bitmap is built.
+     */
+    private List<IndexLookup> planIndexLookups(SecondaryIndex index, int windowRows, boolean hasAmountRange) {
+        List<IndexLookup> lookups = new ArrayList<>();
+        for (String vendor : vendors) {
+            RowBitmap rows = index.vendor(vendor);
+            lookups.add(new IndexLookup("vendor", vendor, vendor.toLowerCase(Locale.ROOT), rows.cardinality(), () -> rows));
+        }
+        for (String product : products) {
+            RowBitmap rows = index.product(product);
+            lookups.add(new IndexLookup("product", product, product.toLowerCase(Locale.ROOT), rows.cardinality(), () -> rows));
+        }
+        if (hasAmountRange) {
+            double min = minAmount;
+            double max = maxAmount;
+            lookups.add(new IndexLookup("amount", null, amountRangeLabel(), index.countAmountRange(min, max),
+                    () -> index.amountRange(min, max)));
+        }
+        return lookups.stream()
+                .filter(lookup -> lookup.cardinality() < windowRows)
+                .sorted(Comparator.comparingInt(IndexLookup::cardinality))
+                .toList();
+    }
+
+    private String amountRangeLabel() {
+        return (minAmount == Double.NEGATIVE_INFINITY ? "" : String.valueOf(minAmount))
+                + ".." + (maxAmount == Double.POSITIVE_INFINITY ? "" : String.valueOf(maxAmount));
+    }
+
+    private String dateRangeLabel() {
+        return (startDay == Long.MIN_VALUE ? "" : LocalDate.ofEpochDay(startDay).toString())
+                + ".." + (endDay == Long.MAX_VALUE ? "" : LocalDate.ofEpochDay(endDay).toString());
+    }
+
+    /**
+     * Share of the segment's date span covered by the query's date range, assuming dates are
+     * spread evenly.
+     */
+    private double dateFraction(TransactionSegment segment) {
+        if (segment.size() == 0) {
+            return 0;
+        }
+        double span = (double) segment.lastDay() - segment.firstDay() + 1;
+        double overlap = Math.min(endDay, segment.lastDay()) - Math.max(startDay, segment.firstDay()) + 1.0;
+        return Math.max(0, Math.min(1, overlap / span));
+    }
+
+    /**
+     * Share of distinct values that match, assuming every value is equally frequent.
+     */
+    private static double fraction(boolean[] matches) {
+        int count = 0;
+        for (boolean match : matches) {
+            if (match) {
+                count++;
+            }
+        }
+        return matches.length == 0 ? 0 : (double) count / matches.length;
+    }
+
+    private static IntPredicate and(IntPredicate first, IntPredicate second) {
+        return first == null ? second : first.and(second);
+    }
+
     public List<Transaction> getTransactions() {
-        return filteredTransactions;
+        recordFullScan();
+        List<SegmentWindow> nonEmpty = windows().stream().filter(window -> window.count() > 0).toList();
+        if (!latestFirst || RowCursor.formOneChain(nonEmpty)) {
+            return new WindowView(nonEmpty, latestFirst);
+        }
+        RowCursor cursor = new RowCursor(nonEmpty, latestFirst);
+        RowList rows = new RowList(count());
+        while (cursor.next()) {
+            rows.add(cursor.window, cursor.row);
+        }
+        return rows.view(nonEmpty);
+    }
+
+    /**
+     * Transactions in the same order as {@link #getTransactions()}, produced one at a time so
+     * that reading a large result needs no memory proportional to its size.
+     */
+    public Iterator<Transaction> iterator() {
+        recordFullScan();
+        List<SegmentWindow> snapshots = windows().stream().map(SegmentWindow::snapshot).toList();
+        RowCursor cursor = new RowCursor(snapshots, latestFirst);
+        return new Iterator<>() {
+            private boolean advanced;
+            private boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    hasNext = cursor.next();
+                    advanced = true;
+                }
+                return hasNext;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                return snapshots.get(cursor.window).columns().toTransaction(cursor.row);
+            }
+        };
+    }
+
+    public int count() {
+        int count = 0;
+        for (SegmentWindow window : windows()) {
+            count += window.count();
+        }
+        return count;
+    }
+
+    public double sumAmounts() {
+        double sum = 0;
+        for (SegmentWindow window : windows()) {
+            sum += window.sum();
+        }
+        record();
+        return sum;
+    }
+
+    public OptionalDouble maxAmount() {
+        if (count() == 0) {
+            record();
+            return OptionalDouble.empty();
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (SegmentWindow window : windows()) {
+            max = Math.max(max, window.max());
+        }
+        record();
+        return OptionalDouble.of(max);
+    }
+
+    public OptionalDouble minAmount() {
+        if (count() == 0) {
+            record();
+            return OptionalDouble.empty();
+        }
+        double min = Double.POSITIVE_INFINITY;
+        for (SegmentWindow window : windows()) {
+            min = Math.min(min, window.min());
+        }
+        record();
+        return OptionalDouble.of(min);
+    }
+
+    /**
+     * Count, sum, extremes and per-month statistics of the matching amounts in one pass over the
+     * columns, without materializing any transaction.
+     */
+    public AmountStatistics summarize() {
+        AmountStatistics amountStatistics = new AmountStatistics();
+        for (SegmentWindow window : windows()) {
+            TransactionColumns columns = window.columns();
+            for (int i = 0; i < window.count(); i++) {
+                int row = window.row(i);
+                amountStatistics.accept(columns.epochDay(row), columns.amount(row));
+            }
+        }
+        recordFullScan();
+        return amountStatistics;
+    }
+
+    /**
+     * Sketch of the matching amounts for quantile estimates. Category and date filters are
+     * answered from per-month sketches kept by each segment, so only the rows of partly
+     * covered months are read.
+     */
+    public QuantileSketch amountSketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        windows().forEach(window -> window.addAmountsTo(sketch));
+        record();
+        return sketch;
+    }
+
+    /**
+     * The {@code limit} transactions with the largest amounts, largest first, selected with a
+     * bounded min-heap so the matching rows are never sorted as a whole.
+     */
+    public List<Transaction> topByAmount(int limit) {
+        double[] heapAmounts = new double[limit];
+        long[] heapRefs = new long[limit];
+        int size = 0;
+        for (int w = 0; w < windows().size(); w++) {
+            SegmentWindow window = windows().get(w);
+            for (int i = 0; i < window.count(); i++) {
+                int row = window.row(i);
+                double amount = window.columns().amount(row);
+                long ref = ((long) w << 32) | row;
+                if (size < limit) {
+                    heapAmounts[size] = amount;
+                    heapRefs[size] = ref;
+                    siftUp(heapAmounts, heapRefs, size++);
+                } else if (limit > 0 && amount > heapAmounts[0]) {
+                    heapAmounts[0] = amount;
+                    heapRefs[0] = ref;
+                    siftDown(heapAmounts, heapRefs, size);
+                }
+            }
+        }
+        Transaction[] top = new Transaction[size];
+        while (size > 0) {
+            long ref = heapRefs[0];
+            top[--size] = windows().get((int) (ref >>> 32)).columns().toTransaction((int) ref);
+            heapAmounts[0] = heapAmounts[size];
+            heapRefs[0] = heapRefs[size];
+            siftDown(heapAmounts, heapRefs, size);
+        }
+        recordFullScan();
+        return Arrays.asList(top);
+    }
+
+    private static void siftUp(double[] amounts, long[] refs, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (amounts[parent] <= amounts[index]) {
+                return;
+            }
+            swap(amounts, refs, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(double[] amounts, long[] refs, int size) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            if (left < size && amounts[left] < amounts[smallest]) {
+                smallest = left;
+            }
+            if (left + 1 < size && amounts[left + 1] < amounts[smallest]) {
+                smallest = left + 1;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(amounts, refs, index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static void swap(double[] amounts, long[] refs, int i, int j) {
+        double amount = amounts[i];
+        amounts[i] = amounts[j];
+        amounts[j] = amount;
+        long ref = refs[i];
+        refs[i] = refs[j];
+        refs[j] = ref;
+    }
+
+    /**
+     * Count, sum, minimum and maximum of the matching amounts per distinct combination of
+     * {@code dimensions}, in one pass over the columns. With no dimensions there is a single
+     * group, unless nothing matches.
+     */
+    public List<TransactionGroup> groupBy(List<GroupDimension> dimensions) {
+        GroupingEngine engine = new GroupingEngine(dimensions);
+        windows().forEach(engine::accept);
+        recordFullScan();
+        return engine.groups();
+    }
+
+    private void recordFullScan() {
+        windows().forEach(SegmentWindow::markScanned);
+        record();
+    }
+
+    private void record() {
+        long scanned = 0;
+        for (SegmentWindow window : windows()) {
+            scanned += window.scanned();
+        }
+        statistics.record(scanned, count());
+    }
+
+    /**
+     * Walks the rows of several windows in result order: one window after the other, or, when
+     * reading latest first, merged by date. On the same day, rows of older segments come first,
+     * as if all segments had been loaded as one list and stably sorted.
+     * <p>
+     * For the merge, consecutive windows whose dates follow each other without overlap, such as
+     * time partitions, form one chain that is read back to front, so each row is picked among
+     * the chains rather than among all windows.
+     */
+    private static final class RowCursor {
+        private final List<SegmentWindow> windows;
+        private final boolean latestFirst;
+        private final int[] remaining;
+        private int[] chainFirst;
+        private int[] chainCurrent;
+        private int window;
+        private int row;
+        private int index = -1;
+
+        private RowCursor(List<SegmentWindow> windows, boolean latestFirst) {
+            this.windows = windows;
+            this.latestFirst = latestFirst;
+            this.remaining = windows.stream().mapToInt(SegmentWindow::count).toArray();
+            if (latestFirst) {
+                buildChains();
+            }
+        }
+
+        private void buildChains() {
+            int[] firsts = new int[windows.size()];
+            int[] lasts = new int[windows.size()];
+            int chains = 0;
+            int lastDay = Integer.MAX_VALUE;
+            for (int w = 0; w < windows.size(); w++) {
+                SegmentWindow candidate = windows.get(w);
+                if (candidate.count() == 0 && chains > 0) {
+                    lasts[chains - 1] = w;
+                    continue;
+                }
+                int firstDay = candidate.count() == 0 ? Integer.MIN_VALUE : candidate.columns().epochDay(candidate.row(0));
+                if (chains == 0 || firstDay <= lastDay) {
+                    firsts[chains++] = w;
+                }
+                lasts[chains - 1] = w;
+                if (candidate.count() > 0) {
+                    lastDay = candidate.columns().epochDay(candidate.row(candidate.count() - 1));
+                }
+            }
+            chainFirst = Arrays.copyOf(firsts, chains);
+            chainCurrent = Arrays.copyOf(lasts, chains);
+        }
+
+        /**
+         * Whether the dates of {@code windows}, all non-empty, follow each other without overlap,
+         * so reading latest first is reading them back to front.
+         */
+        private static boolean formOneChain(List<SegmentWindow> windows) {
+            for (int w = 1; w < windows.size(); w++) {
+                SegmentWindow previous = windows.get(w - 1);
+                SegmentWindow current = windows.get(w);
+                if (current.columns().epochDay(current.row(0))
+                        <= previous.columns().epochDay(previous.row(previous.count() - 1))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean next() {
+            return latestFirst ? nextLatest() : nextInOrder();
+        }
+
+        private boolean nextInOrder() {
+            index++;
+            while (window < windows.size() && index >= windows.get(window).count()) {
+                window++;
+                index = 0;
+            }
+            if (window == windows.size()) {
+                return false;
+            }
+            row = windows.get(window).row(index);
+            return true;
+        }
+
+        private boolean nextLatest() {
+            int next = -1;
+            int nextDay = Integer.MIN_VALUE;
+            for (int c = 0; c < chainCurrent.length; c++) {
+                int w = chainCurrent[c];
+                while (w > chainFirst[c] && remaining[w] == 0) {
+                    w--;
+                }
+                chainCurrent[c] = w;
+                if (remaining[w] > 0) {
+                    int day = windows.get(w).columns().epochDay(windows.get(w).row(remaining[w] - 1));
+                    if (next < 0 || day > nextDay) {
+                        next = w;
+                        nextDay = day;
+                    }
+                }
+            }
+            if (next < 0) {
+                return false;
+            }
+            remaining[next]--;
+            window = next;
+            row = windows.get(next).row(remaining[next]);
+            return true;
+        }
+    }
+
+    /**
+     * Windows read one after the other, or back to front when reading latest first, without
+     * copying their rows.
+     */
+    private static final class WindowView extends AbstractList<Transaction> implements RandomAccess {
+        private final List<SegmentWindow> windows;
+        private final int[] offsets;
+        private final boolean latestFirst;
+
+        private WindowView(List<SegmentWindow> windows, boolean latestFirst) {
+            this.windows = windows.stream().map(SegmentWindow::snapshot).toList();
+            this.offsets = new int[windows.size() + 1];
+            for (int w = 0; w < windows.size(); w++) {
+                offsets[w + 1] = offsets[w] + windows.get(w).count();
+            }
+            this.latestFirst = latestFirst;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            Objects.checkIndex(index, size());
+            int position = latestFirst ? size() - 1 - index : index;
+            int w = windows.size() == 1 ? 0 : Arrays.binarySearch(offsets, position);
+            if (w < 0) {
+                w = -w - 2;
+            }
+            SegmentWindow window = windows.get(w);
+            return window.columns().toTransaction(window.row(position - offsets[w]));
+        }
+
+        @Override
+        public int size() {
+            return offsets[offsets.length - 1];
+        }
+
+        /**
+         * Walks the windows in turn rather than locating each index among them.
+         */
+        @Override
+        public Iterator<Transaction> iterator() {
+            return new Iterator<>() {
+                private int w = latestFirst ? windows.size() - 1 : 0;
+                private int index = latestFirst && w >= 0 ? windows.get(w).count() - 1 : 0;
+                private int returned;
+
+                @Override
+                public boolean hasNext() {
+                    return returned < size();
+                }
+
+                @Override
+                public Transaction next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    if (latestFirst && index < 0) {
+                        index = windows.get(--w).count() - 1;
+                    } else if (!latestFirst && index == windows.get(w).count()) {
+                        w++;
+                        index = 0;
+                    }
+                    SegmentWindow window = windows.get(w);
+                    returned++;
+                    return window.columns().toTransaction(window.row(latestFirst ? index-- : index++));
+                }
+            };
+        }
+    }
+
+    /**
+     * (window, row) pairs in result order, for results spanning several segments.
+     */
+    private static final class RowList {
+        private final int[] windowIndexes;
+        private final int[] rows;
+        private int size;
+
+        private RowList(int capacity) {
+            this.windowIndexes = new int[capacity];
+            this.rows = new int[capacity];
+        }
+
+        private void add(int windowIndex, int row) {
+            windowIndexes[size] = windowIndex;
+            rows[size] = row;
+            size++;
+        }
+
+        private List<Transaction> view(List<SegmentWindow> windows) {
+            return new AbstractList<>() {
+                @Override
+                public Transaction get(int index) {
+                    Objects.checkIndex(index, size);
+                    return windows.get(windowIndexes[index]).columns().toTransaction(rows[index]);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private record IndexLookup(String kind, String value, String label, int cardinality, Supplier<RowBitmap> rows) {
     }
 }
@@ -0,0 +1,15 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.util.List;
+
+/**
+ * Aggregates of one group produced by {@link TransactionFilterQuery#groupBy(List)}.
+ *
+ * @param key one label per grouped dimension, in the order the dimensions were given
+ */
+public record TransactionGroup(List<String> key, long count, double sum, double min, double max) {
+
+    public double average() {
+        return sum / count;
+    }
+}
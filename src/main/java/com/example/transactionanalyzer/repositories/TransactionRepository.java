@@ -1,6 +1,40 @@
 package com.example.transactionanalyzer.repositories;
 
+import com.example.transactionanalyzer.model.Transaction;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+
 public interface TransactionRepository {
     TransactionFilterQuery filterQuery();
-}
 
+    /**
+     * Every category in the dataset, normalized with {@link TransactionRepositoryImpl#normalizeCategory(String)}.
+     */
+    SortedSet<String> categories();
+
+    /**
+     * Statistics of the category per calendar month, from {@code from} to {@code to} inclusive,
+     * read from the pre-aggregated monthly rollup. Months without transactions are absent.
+     */
+    NavigableMap<YearMonth, DoubleSummaryStatistics> monthlyRollup(String category, YearMonth from, YearMonth to);
+
+    /**
+     * Running totals per category and month, updated on every append.
+     */
+    RunningTotals runningTotals();
+
+    /**
+     * Adds transactions to the dataset. Queries started before the call do not see them.
+     */
+    void append(Collection<Transaction> transactions);
+
+    /**
+     * Number that changes whenever the dataset does, so results computed from it can be keyed
+     * by the generation they were computed from.
+     */
+    long generation();
+}
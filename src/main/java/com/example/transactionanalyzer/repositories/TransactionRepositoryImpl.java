@@ -1,19 +1,238 @@
 package com.example.transactionanalyzer.repositories;
 
 import com.example.transactionanalyzer.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Repository made of immutable {@link TransactionSegment}s: the loaded dataset, optionally
+ * partitioned into one segment per {@link PartitionGranularity} period, followed by one segment
+ * per appended batch. Queries and monthly rollups skip the segments whose zone map rules them
+ * out.
+ * <p>
+ * Appends build their segment, including its category ranges and {@link AmountIndex}, without
+ * holding any lock and publish it by compare-and-set on the segment list, so nothing already
+ * built is rebuilt and queries keep reading the list they started with. Small appended segments
+ * are merged once a segment is no more than twice the size of the one after it, which keeps
+ * the number of segments logarithmic; loaded segments are never merged.
+ */
 public class TransactionRepositoryImpl implements TransactionRepository {
 
-    private final List<Transaction> transactions;
+    private static final Logger log = LoggerFactory.getLogger(TransactionRepositoryImpl.class);
+
+    private static final int MERGE_FACTOR = 2;
+
+    private final AtomicReference<List<TransactionSegment>> segments;
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+    private final QueryStatistics queryStatistics;
+    private final RunningTotals runningTotals = new RunningTotals();
+    private final int loadedSegments;
 
     public TransactionRepositoryImpl(List<Transaction> transactions) {
-        this.transactions = transactions;
+        this(new TransactionColumns.Builder().addAll(transactions).build());
+    }
+
+    public TransactionRepositoryImpl(TransactionColumns columns) {
+        this(columns, new QueryStatistics());
+    }
+
+    /**
+     * @param queryStatistics receives the scanned and matched row counts of every query
+     */
+    public TransactionRepositoryImpl(TransactionColumns columns, QueryStatistics queryStatistics) {
+        this(columns, queryStatistics, PartitionGranularity.NONE);
+    }
+
+    /**
+     * Splits {@code columns} into one segment per {@code granularity} period. The columns must
+     * have been built with {@link TransactionColumns.Builder#build(PartitionGranularity)} for the
+     * same granularity; partitions are then zero-copy slices of them. Columns in any other order,
+     * such as a snapshot written for a different granularity, are copied and sorted again first,
+     * since every segment needs each category in one run of rows.
+     *
+     * @param queryStatistics receives the scanned and matched row counts of every query
+     */
+    public TransactionRepositoryImpl(TransactionColumns columns, QueryStatistics queryStatistics, PartitionGranularity granularity) {
+        List<TransactionSegment> partitions = partition(columns, granularity).stream().map(TransactionSegment::new).toList();
+        this.segments = new AtomicReference<>(partitions);
+        this.loadedSegments = partitions.size();
+        this.queryStatistics = queryStatistics;
+        partitions.forEach(runningTotals::add);
     }
 
     @Override
     public TransactionFilterQuery filterQuery() {
-        return new TransactionFilterQuery(transactions);
+        return new TransactionFilterQuery(segments.get(), queryStatistics);
+    }
+
+    @Override
+    public SortedSet<String> categories() {
+        SortedSet<String> categories = new TreeSet<>();
+        for (TransactionSegment segment : segments.get()) {
+            categories.addAll(segment.categories());
+        }
+        return categories;
+    }
+
+    @Override
+    public NavigableMap<YearMonth, DoubleSummaryStatistics> monthlyRollup(String category, YearMonth from, YearMonth to) {
+        NavigableMap<YearMonth, DoubleSummaryStatistics> months = new TreeMap<>();
+        long startDay = from.atDay(1).toEpochDay();
+        long endDay = to.atEndOfMonth().toEpochDay();
+        for (TransactionSegment segment : segments.get()) {
+            if (segment.mayContain(category, startDay, endDay)) {
+                segment.addMonthlyRollup(months, category, from, to);
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Updated after an appended batch becomes visible to queries and before the generation
+     * moves on, so totals never include a batch that queries cannot see yet and never lag
+     * behind the generation they are read under.
+     */
+    @Override
+    public RunningTotals runningTotals() {
+        return runningTotals;
+    }
+
+    @Override
+    public void append(Collection<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        TransactionSegment segment = new TransactionSegment(
+                new TransactionColumns.Builder(transactions.size()).addAll(transactions).build());
+        appendLock.lock();
+        try {
+            segments.updateAndGet(current -> {
+                List<TransactionSegment> updated = new ArrayList<>(current);
+                updated.add(segment);
+                return List.copyOf(updated);
+            });
+            runningTotals.add(segment);
+            generation.incrementAndGet();
+        } finally {
+            appendLock.unlock();
+        }
+        mergeSmallSegments();
+    }
+
+    @Override
+    public long generation() {
+        return generation.get();
+    }
+
+    public static String normalizeCategory(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Row ranges where the period of {@code granularity} changes, as zero-copy slices of
+     * {@code columns}, or of a sorted copy when they are not in the order
+     * {@link TransactionColumns.Builder#build(PartitionGranularity)} produces.
+     */
+    private static List<TransactionColumns> partition(TransactionColumns columns, PartitionGranularity granularity) {
+        List<TransactionColumns> partitions = slicesByPeriod(columns, granularity);
+        if (partitions == null) {
+            log.warn("Transactions are not ordered for {} partitions, sorting them again", granularity);
+            TransactionColumns sorted = new TransactionColumns.Builder(columns.size()).addAll(columns).build(granularity);
+            partitions = slicesByPeriod(sorted, granularity);
+        }
+        return partitions;
+    }
+
+    /**
+     * Slices {@code columns} where the period changes, checking on the way that periods
+     * ascend, that each normalized category forms one run per period and that dates ascend
+     * within a run. Returns {@code null} when they do not.
+     */
+    private static List<TransactionColumns> slicesByPeriod(TransactionColumns columns, PartitionGranularity granularity) {
+        if (columns.size() == 0) {
+            return List.of(columns);
+        }
+        String[] normalized = new String[columns.categories().size()];
+        for (int id = 0; id < normalized.length; id++) {
+            String category = columns.categories().valueOf(id);
+            normalized[id] = category == null ? null : normalizeCategory(category);
+        }
+        List<TransactionColumns> partitions = new ArrayList<>();
+        Set<String> periodCategories = new HashSet<>();
+        int from = 0;
+        int day = columns.epochDay(0);
+        int key = granularity.keyOf(day);
+        String category = normalized[columns.categoryId(0)];
+        periodCategories.add(category);
+        for (int row = 1; row < columns.size(); row++) {
+            int rowDay = columns.epochDay(row);
+            int rowKey = rowDay == day ? key : granularity.keyOf(rowDay);
+            String rowCategory = normalized[columns.categoryId(row)];
+            if (rowKey < key) {
+                return null;
+            }
+            if (rowKey > key) {
+                partitions.add(columns.slice(from, row));
+                from = row;
+                key = rowKey;
+                periodCategories.clear();
+                periodCategories.add(rowCategory);
+            } else if (!Objects.equals(rowCategory, category)) {
+                if (!periodCategories.add(rowCategory)) {
+                    return null;
+                }
+            } else if (rowDay < day) {
+                return null;
+            }
+            day = rowDay;
+            category = rowCategory;
+        }
+        partitions.add(columns.slice(from, columns.size()));
+        return partitions;
+    }
+
+    /**
+     * Merges the two newest segments while they are of similar size. Only one thread merges at
+     * a time; others skip, since the merging thread re-checks after every merge.
+     */
+    private void mergeSmallSegments() {
+        if (!mergeLock.tryLock()) {
+            return;
+        }
+        try {
+            while (true) {
+                List<TransactionSegment> current = segments.get();
+                int newestIndex = current.size() - 1;
+                if (newestIndex - 1 < loadedSegments) {
+                    return;
+                }
+                TransactionSegment previous = current.get(newestIndex - 1);
+                TransactionSegment newest = current.get(newestIndex);
+                if (previous.size() > MERGE_FACTOR * newest.size()) {
+                    return;
+                }
+                TransactionSegment merged = new TransactionSegment(new TransactionColumns.Builder(previous.size() + newest.size())
+                        .addAll(previous.columns())
+                        .addAll(newest.columns())
+                        .build());
+                segments.updateAndGet(latest -> {
+                    List<TransactionSegment> updated = new ArrayList<>(latest);
+                    int index = updated.indexOf(previous);
+                    updated.set(index, merged);
+                    updated.remove(index + 1);
+                    return List.copyOf(updated);
+                });
+            }
+        } finally {
+            mergeLock.unlock();
+        }
     }
 }
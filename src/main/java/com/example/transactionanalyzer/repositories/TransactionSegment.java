@@ -0,0 +1,149 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.time.YearMonth;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+/**
+ * An immutable block of {@link TransactionColumns} together with the row range of every
+ * category in it. A repository is a list of segments: the loaded dataset, or one partition of
+ * it per period, plus any appended batches. The date bounds of the segment and of each
+ * category in it act as a zone map that lets queries skip the segment.
+ */
+class TransactionSegment {
+
+    private final TransactionColumns columns;
+    private final Map<String, RowRange> rangesByCategory;
+    private final MonthlyRollupCube monthlyRollup;
+    private final int firstDay;
+    private final int lastDay;
+    private volatile AmountSketchIndex sketchIndex;
+    private volatile SecondaryIndex secondaryIndex;
+
+    TransactionSegment(TransactionColumns columns) {
+        this.columns = columns;
+        this.rangesByCategory = indexByCategory(columns);
+        this.monthlyRollup = new MonthlyRollupCube(columns, rangesByCategory);
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (RowRange range : rangesByCategory.values()) {
+            first = Math.min(first, columns.epochDay(range.from()));
+            last = Math.max(last, columns.epochDay(range.to() - 1));
+        }
+        this.firstDay = first;
+        this.lastDay = last;
+    }
+
+    TransactionColumns columns() {
+        return columns;
+    }
+
+    int size() {
+        return columns.size();
+    }
+
+    /**
+     * Earliest epoch day in the segment, or {@link Integer#MAX_VALUE} when it is empty.
+     */
+    int firstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Latest epoch day in the segment, or {@link Integer#MIN_VALUE} when it is empty.
+     */
+    int lastDay() {
+        return lastDay;
+    }
+
+    /**
+     * Zone map check: false when the segment certainly has no rows of {@code category}, or of
+     * any category when it is null, between the two epoch days inclusive. Reads only the
+     * segment's date bounds and the first and last row of the category.
+     */
+    boolean mayContain(String category, long startDay, long endDay) {
+        if (endDay < firstDay || startDay > lastDay) {
+            return false;
+        }
+        if (category == null) {
+            return true;
+        }
+        RowRange range = findByCategory(category);
+        return range.size() > 0 && columns.epochDay(range.from()) <= endDay && columns.epochDay(range.to() - 1) >= startDay;
+    }
+
+    void addMonthlyRollup(NavigableMap<YearMonth, DoubleSummaryStatistics> target, String category, YearMonth from, YearMonth to) {
+        monthlyRollup.addTo(target, TransactionRepositoryImpl.normalizeCategory(category), from, to);
+    }
+
+    /**
+     * Built on first use, since only percentile queries need it.
+     */
+    AmountSketchIndex sketchIndex() {
+        AmountSketchIndex index = sketchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = sketchIndex;
+                if (index == null) {
+                    index = new AmountSketchIndex(columns);
+                    sketchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Built on first use, since only vendor, product and amount filters need it.
+     */
+    SecondaryIndex secondaryIndex() {
+        SecondaryIndex index = secondaryIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = secondaryIndex;
+                if (index == null) {
+                    index = new SecondaryIndex(columns);
+                    secondaryIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    Set<String> categories() {
+        return rangesByCategory.keySet();
+    }
+
+    RowRange findByCategory(String category) {
+        return rangesByCategory.getOrDefault(TransactionRepositoryImpl.normalizeCategory(category), RowRange.EMPTY);
+    }
+
+    /**
+     * Columns are ordered by normalized category, so each category is one contiguous run of rows.
+     *
+     * @throws IllegalArgumentException if a category has more than one run
+     */
+    private static Map<String, RowRange> indexByCategory(TransactionColumns columns) {
+        Map<String, RowRange> ranges = new HashMap<>();
+        int from = 0;
+        for (int row = 1; row <= columns.size(); row++) {
+            if (row == columns.size() || isNewCategory(columns, from, row)) {
+                String category = TransactionRepositoryImpl.normalizeCategory(columns.category(from));
+                if (ranges.putIfAbsent(category, new RowRange(from, row)) != null) {
+                    throw new IllegalArgumentException("Rows of category " + category + " are not contiguous");
+                }
+                from = row;
+            }
+        }
+        return ranges;
+    }
+
+    private static boolean isNewCategory(TransactionColumns columns, int runStart, int row) {
+        return columns.categoryId(row) != columns.categoryId(row - 1)
+                && !TransactionRepositoryImpl.normalizeCategory(columns.category(row))
+                .equals(TransactionRepositoryImpl.normalizeCategory(columns.category(runStart)));
+    }
+}
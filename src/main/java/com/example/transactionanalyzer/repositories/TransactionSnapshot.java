@@ -0,0 +1,232 @@
+package com.example.transactionanalyzer.repositories;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of a {@link TransactionColumns} store that can be opened by memory-mapping
+ * the file, so startup does not have to parse the source JSON again.
+ * <p>
+ * Layout, little-endian: a header (magic, version, row count, the size and modification time
+ * of the source file the snapshot was built from and the {@link PartitionGranularity} its rows
+ * are ordered for), the category, vendor and product
+ * dictionaries as length-prefixed UTF-8 strings, then padding to 8 bytes followed by the
+ * fixed-width columns: amounts, prefix sums, min tree, max tree, dates, category ids, vendor
+ * ids and product ids. Opened columns are read-only views straight onto the mapped file.
+ */
+public class TransactionSnapshot {
+
+    private static final long MAGIC = 0x50414e5358415254L;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 8 + 4 + 4 + 8 + 8 + 4;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+    private static final int NULL_LENGTH = -1;
+
+    private final long sourceSize;
+    private final long sourceLastModified;
+    private final PartitionGranularity granularity;
+
+    /**
+     * @param sourceSize         size of the file the snapshot is built from
+     * @param sourceLastModified modification time of that file, in milliseconds
+     * @param granularity        partitioning the written columns were built for
+     */
+    public TransactionSnapshot(long sourceSize, long sourceLastModified, PartitionGranularity granularity) {
+        this.sourceSize = sourceSize;
+        this.sourceLastModified = sourceLastModified;
+        this.granularity = granularity;
+    }
+
+    public static TransactionSnapshot of(Path source, PartitionGranularity granularity) throws IOException {
+        return new TransactionSnapshot(Files.size(source), Files.getLastModifiedTime(source).toMillis(), granularity);
+    }
+
+    /**
+     * Tells whether {@code snapshotFile} exists and was written from this source, for this
+     * granularity, with the current format version. Rows ordered for another granularity
+     * would have to be sorted again on load, so such a snapshot is stale.
+     */
+    public boolean isCurrent(Path snapshotFile) throws IOException {
+        if (!Files.isRegularFile(snapshotFile) || Files.size(snapshotFile) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            return header.getLong() == MAGIC
+                    && header.getInt() == VERSION
+                    && header.getInt() >= 0
+                    && header.getLong() == sourceSize
+                    && header.getLong() == sourceLastModified
+                    && header.getInt() == granularity.ordinal();
+        }
+    }
+
+    /**
+     * Writes {@code columns} to a temporary file next to {@code snapshotFile} and moves it into
+     * place, so a reader never sees a partially written snapshot.
+     */
+    public void write(TransactionColumns columns, Path snapshotFile) throws IOException {
+        Path absolute = snapshotFile.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                        .putLong(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(columns.size())
+                        .putLong(sourceSize)
+                        .putLong(sourceLastModified)
+                        .putInt(granularity.ordinal());
+                writeFully(channel, header.flip());
+                writeDictionary(channel, columns.categories());
+                writeDictionary(channel, columns.vendors());
+                writeDictionary(channel, columns.products());
+                writeFully(channel, ByteBuffer.allocate(padding(channel.position())));
+
+                AmountIndex amountIndex = columns.amountIndex();
+                writeDoubles(channel, columns.amounts());
+                writeDoubles(channel, amountIndex.prefixSums());
+                writeDoubles(channel, amountIndex.minTree());
+                writeDoubles(channel, amountIndex.maxTree());
+                writeInts(channel, columns.epochDays());
+                writeInts(channel, columns.categoryIds());
+                writeInts(channel, columns.vendorIds());
+                writeInts(channel, columns.productIds());
+                channel.force(true);
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps {@code snapshotFile} read-only. Only the dictionaries are decoded; every column is
+     * served directly from the mapping, which stays valid after the channel is closed.
+     */
+    public static TransactionColumns open(Path snapshotFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getLong() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a transaction snapshot: " + snapshotFile);
+            }
+            int rows = header.getInt();
+
+            channel.position(HEADER_BYTES);
+            StringDictionary categories = readDictionary(channel);
+            StringDictionary vendors = readDictionary(channel);
+            StringDictionary products = readDictionary(channel);
+            long offset = channel.position() + padding(channel.position());
+
+            DoubleBuffer amounts = mapDoubles(channel, offset, rows);
+            offset += 8L * rows;
+            DoubleBuffer prefixSums = mapDoubles(channel, offset, rows + 1);
+            offset += 8L * (rows + 1);
+            DoubleBuffer minTree = mapDoubles(channel, offset, 2 * rows);
+            offset += 16L * rows;
+            DoubleBuffer maxTree = mapDoubles(channel, offset, 2 * rows);
+            offset += 16L * rows;
+            IntBuffer epochDays = mapInts(channel, offset, rows);
+            offset += 4L * rows;
+            IntBuffer categoryIds = mapInts(channel, offset, rows);
+            offset += 4L * rows;
+            IntBuffer vendorIds = mapInts(channel, offset, rows);
+            offset += 4L * rows;
+            IntBuffer productIds = mapInts(channel, offset, rows);
+
+            return new TransactionColumns(amounts, epochDays, categoryIds, vendorIds, productIds,
+                    categories, vendors, products, new AmountIndex(prefixSums, minTree, maxTree));
+        }
+    }
+
+    private static void writeDictionary(FileChannel channel, StringDictionary dictionary) throws IOException {
+        writeFully(channel, ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(dictionary.size()).flip());
+        for (int id = 0; id < dictionary.size(); id++) {
+            String value = dictionary.valueOf(id);
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            writeFully(channel, ByteBuffer.allocate(4 + bytes.length).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(value == null ? NULL_LENGTH : bytes.length).put(bytes).flip());
+        }
+    }
+
+    private static StringDictionary readDictionary(FileChannel channel) throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        int size = readFully(channel, channel.position(), 4).getInt();
+        channel.position(channel.position() + 4);
+        for (int id = 0; id < size; id++) {
+            int length = readFully(channel, channel.position(), 4).getInt();
+            if (length == NULL_LENGTH) {
+                channel.position(channel.position() + 4);
+                dictionary.idOf(null);
+                continue;
+            }
+            ByteBuffer bytes = readFully(channel, channel.position() + 4, length);
+            channel.position(channel.position() + 4 + length);
+            dictionary.idOf(StandardCharsets.UTF_8.decode(bytes).toString());
+        }
+        return dictionary;
+    }
+
+    private static void writeDoubles(FileChannel channel, DoubleBuffer values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        values.rewind();
+        while (values.hasRemaining()) {
+            DoubleBuffer chunk = buffer.clear().asDoubleBuffer();
+            int count = Math.min(chunk.remaining(), values.remaining());
+            chunk.put(values.slice().limit(count));
+            values.position(values.position() + count);
+            writeFully(channel, buffer.limit(8 * count));
+        }
+    }
+
+    private static void writeInts(FileChannel channel, IntBuffer values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        values.rewind();
+        while (values.hasRemaining()) {
+            IntBuffer chunk = buffer.clear().asIntBuffer();
+            int count = Math.min(chunk.remaining(), values.remaining());
+            chunk.put(values.slice().limit(count));
+            values.position(values.position() + count);
+            writeFully(channel, buffer.limit(4 * count));
+        }
+    }
+
+    private static DoubleBuffer mapDoubles(FileChannel channel, long offset, int count) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, 8L * count)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer();
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long offset, int count) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, 4L * count)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated transaction snapshot");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int padding(long position) {
+        return (int) ((8 - position % 8) % 8);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.transactionanalyzer.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of aggregate results, keyed by operation, normalized category, date range and
+ * the repository generation the result was computed from. A change to the dataset moves the
+ * generation on, so stale entries are never read again and age out through the size and TTL
+ * limits instead of being invalidated one by one.
+ */
+public class AggregateCache {
+
+    public enum Operation { TOTAL, MAX, MIN, MONTHLY_AVERAGE, SUMMARY }
+
+    private final Cache<Key, Object> cache;
+    private final Set<Operation> cachedOperations;
+
+    /**
+     * @param maximumSize      number of results kept before the least valuable ones are evicted
+     * @param timeToLive       how long a result is kept after it was computed
+     * @param cachedOperations operations whose results are cached; the others are always computed
+     */
+    public AggregateCache(long maximumSize, Duration timeToLive, Set<Operation> cachedOperations) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.cachedOperations = cachedOperations.isEmpty() ? EnumSet.noneOf(Operation.class) : EnumSet.copyOf(cachedOperations);
+    }
+
+    public static AggregateCache disabled() {
+        return new AggregateCache(0, Duration.ZERO, Set.of());
+    }
+
+    /**
+     * Returns the cached result for the key, computing and caching it on a miss. Exceptions from
+     * {@code compute} propagate and nothing is cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Operation operation, String normalizedCategory, LocalDate startDate, LocalDate endDate,
+                     long generation, Supplier<T> compute) {
+        if (!cachedOperations.contains(operation)) {
+            return compute.get();
+        }
+        Key key = new Key(operation, normalizedCategory, startDate, endDate, generation);
+        return (T) cache.get(key, ignored -> compute.get());
+    }
+
+    public Cache<?, ?> nativeCache() {
+        return cache;
+    }
+
+    private record Key(Operation operation, String category, LocalDate startDate, LocalDate endDate, long generation) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.transactionanalyzer.services;
+
+import com.example.transactionanalyzer.dto.*;
+import com.example.transactionanalyzer.exceptions.InvalidBatchRequestException;
+import com.example.transactionanalyzer.repositories.TransactionFilterQuery;
+import com.example.transactionanalyzer.repositories.TransactionRepository;
+import com.example.transactionanalyzer.utils.ErrorMessages;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates many (category, date range, metric) aggregations in one call. The queries are
+ * independent reads of the same dataset, so they are split across a dedicated
+ * {@link ForkJoinPool} and the results are returned in request order.
+ */
+public class BatchAggregationService {
+
+    private static final LocalDate DEFAULT_START_DATE = LocalDate.of(1970, 1, 1);
+
+    private final TransactionRepository transactionRepository;
+    private final ForkJoinPool pool;
+    private final int maxQueries;
+
+    /**
+     * @param pool       workers the queries are evaluated on
+     * @param maxQueries largest number of queries, after expanding categories, accepted in one batch
+     */
+    public BatchAggregationService(TransactionRepository transactionRepository, ForkJoinPool pool, int maxQueries) {
+        this.transactionRepository = transactionRepository;
+        this.pool = pool;
+        this.maxQueries = maxQueries;
+    }
+
+    /**
+     * With {@code groupByCategory}, each query is evaluated for every category in the dataset and
+     * its own category is ignored. A query without matching transactions yields a count of 0 and
+     * no value rather than failing the batch.
+     */
+    public BatchAggregationResultDTO aggregate(BatchAggregationRequestDTO request) {
+        List<AggregationQueryDTO> queries = expand(request);
+        if (queries.size() > maxQueries) {
+            throw new InvalidBatchRequestException(ErrorMessages.BATCH_TOO_LARGE.formatted(queries.size(), maxQueries));
+        }
+        List<AggregationResultDTO> results = pool.submit(() -> queries.parallelStream()
+                        .map(this::evaluate)
+                        .toList())
+                .join();
+        return new BatchAggregationResultDTO(results);
+    }
+
+    private List<AggregationQueryDTO> expand(BatchAggregationRequestDTO request) {
+        if (request.getQueries() == null || request.getQueries().isEmpty()) {
+            throw new InvalidBatchRequestException(ErrorMessages.EMPTY_BATCH);
+        }
+        List<String> categories = request.isGroupByCategory() ? List.copyOf(transactionRepository.categories()) : null;
+        List<AggregationQueryDTO> queries = new ArrayList<>();
+        for (int i = 0; i < request.getQueries().size(); i++) {
+            AggregationQueryDTO query = validate(i, request.getQueries().get(i), request.isGroupByCategory());
+            if (categories == null) {
+                queries.add(query);
+            } else {
+                for (String category : categories) {
+                    queries.add(new AggregationQueryDTO(category, query.getStartDate(), query.getEndDate(), query.getMetric()));
+                }
+            }
+        }
+        return queries;
+    }
+
+    private AggregationQueryDTO validate(int index, AggregationQueryDTO query, boolean groupByCategory) {
+        if (query == null || query.getMetric() == null) {
+            throw new InvalidBatchRequestException(ErrorMessages.MISSING_BATCH_QUERY_FIELD.formatted(index, "metric"));
+        }
+        if (!groupByCategory && query.getCategory() == null) {
+            throw new InvalidBatchRequestException(ErrorMessages.MISSING_BATCH_QUERY_FIELD.formatted(index, "category"));
+        }
+        LocalDate startDate = query.getStartDate() == null ? DEFAULT_START_DATE : query.getStartDate();
+        LocalDate endDate = query.getEndDate() == null ? LocalDate.now() : query.getEndDate();
+        if (startDate.isAfter(endDate)) {
+            throw new InvalidBatchRequestException(ErrorMessages.INVALID_DATE_RANGE);
+        }
+        return new AggregationQueryDTO(query.getCategory(), startDate, endDate, query.getMetric());
+    }
+
+    private AggregationResultDTO evaluate(AggregationQueryDTO query) {
+        TransactionFilterQuery filterQuery = transactionRepository.filterQuery()
+                .byCategory(query.getCategory())
+                .byDateRange(query.getStartDate(), query.getEndDate());
+        int count = filterQuery.count();
+        Double value = count == 0 && query.getMetric() != AggregationMetric.COUNT ? null : switch (query.getMetric()) {
+            case TOTAL -> roundToTwoDecimalPlaces(filterQuery.sumAmounts());
+            case MIN -> roundToTwoDecimalPlaces(filterQuery.minAmount().orElseThrow());
+            case MAX -> roundToTwoDecimalPlaces(filterQuery.maxAmount().orElseThrow());
+            case AVERAGE -> roundToTwoDecimalPlaces(filterQuery.sumAmounts() / count);
+            case COUNT -> (double) count;
+        };
+        return new AggregationResultDTO(query.getCategory(), query.getStartDate(), query.getEndDate(), query.getMetric(), count, value);
+    }
+
+    private double roundToTwoDecimalPlaces(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.transactionanalyzer.services;
+
+import com.example.transactionanalyzer.exceptions.InvalidQueryException;
+import com.example.transactionanalyzer.utils.ErrorMessages;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Keyset position in a latest-first list of transactions: the date of the last transaction
+ * returned and how many transactions of that date have been returned so far. Clients only see
+ * it as an opaque token.
+ */
+public record PageCursor(LocalDate date, int sequence) {
+
+    public String encode() {
+        String value = date.toEpochDay() + ":" + sequence;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(token);
+            }
+            int sequence = Integer.parseInt(parts[1]);
+            if (sequence < 1) {
+                throw new IllegalArgumentException(token);
+            }
+            return new PageCursor(LocalDate.ofEpochDay(Long.parseLong(parts[0])), sequence);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidQueryException(ErrorMessages.INVALID_CURSOR.formatted(token));
+        }
+    }
+}
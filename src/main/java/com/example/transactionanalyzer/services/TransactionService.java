@@ -2,23 +2,42 @@ package com.example.transactionanalyzer.services;
 
 import com.example.transactionanalyzer.dto.*;
 import com.example.transactionanalyzer.exceptions.CategoryNotFoundException;
+import com.example.transactionanalyzer.exceptions.InvalidQueryException;
+import com.example.transactionanalyzer.exceptions.InvalidTransactionException;
 import com.example.transactionanalyzer.exceptions.UnableToCalculateException;
 import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.repositories.AmountAccumulator;
+import com.example.transactionanalyzer.repositories.AmountStatistics;
+import com.example.transactionanalyzer.repositories.GroupDimension;
+import com.example.transactionanalyzer.repositories.QuantileSketch;
+import com.example.transactionanalyzer.repositories.QueryPlan;
+import com.example.transactionanalyzer.repositories.TransactionGroup;
 import com.example.transactionanalyzer.repositories.TransactionFilterQuery;
 import com.example.transactionanalyzer.repositories.TransactionRepository;
+import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
 import com.example.transactionanalyzer.utils.ErrorMessages;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class TransactionService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final TransactionRepository transactionRepository;
+    private final AggregateCache aggregateCache;
 
     public TransactionService(TransactionRepository transactionRepository) {
+        this(transactionRepository, AggregateCache.disabled());
+    }
+
+    public TransactionService(TransactionRepository transactionRepository, AggregateCache aggregateCache) {
         this.transactionRepository = transactionRepository;
+        this.aggregateCache = aggregateCache;
     }
 
     public CategoryTransactionsDTO getTransactionsByCategory(String category) {
@@ -33,61 +52,351 @@ public class TransactionService {
         return new CategoryTransactionsDTO(category, transactions);
     }
 
+    /**
+     * One page of the category's transactions, latest first, starting after {@code cursor}
+     * (from the start when null). The next cursor is null on the last page.
+     */
+    public TransactionPageDTO getTransactionPageByCategory(String category, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidQueryException(ErrorMessages.INVALID_PAGE_LIMIT.formatted(MAX_PAGE_SIZE));
+        }
+        PageCursor start = cursor == null ? null : PageCursor.decode(cursor);
+        TransactionFilterQuery query = transactionRepository.filterQuery()
+                .byCategory(category)
+                .sortByLatest();
+        if (start == null && query.count() == 0) {
+            throw new CategoryNotFoundException(formatError(ErrorMessages.CATEGORY_NOT_FOUND, category));
+        }
+        if (start != null) {
+            query.continueAfter(start.date(), start.sequence());
+        }
+
+        Iterator<Transaction> transactions = query.iterator();
+        List<Transaction> page = new ArrayList<>(Math.min(limit, query.count()));
+        while (page.size() < limit && transactions.hasNext()) {
+            page.add(transactions.next());
+        }
+        String nextCursor = transactions.hasNext() ? nextCursor(start, page).encode() : null;
+        return new TransactionPageDTO(category, page, nextCursor);
+    }
+
+    /**
+     * Every transaction of the category, latest first, produced lazily for streaming.
+     */
+    public Iterator<Transaction> streamTransactionsByCategory(String category) {
+        TransactionFilterQuery query = transactionRepository.filterQuery()
+                .byCategory(category)
+                .sortByLatest();
+        if (query.count() == 0) {
+            throw new CategoryNotFoundException(formatError(ErrorMessages.CATEGORY_NOT_FOUND, category));
+        }
+        return query.iterator();
+    }
+
+    private PageCursor nextCursor(PageCursor start, List<Transaction> page) {
+        LocalDate lastDate = page.get(page.size() - 1).getDate();
+        int sameDay = 0;
+        while (sameDay < page.size() && page.get(page.size() - 1 - sameDay).getDate().equals(lastDate)) {
+            sameDay++;
+        }
+        if (sameDay == page.size() && start != null && start.date().equals(lastDate)) {
+            sameDay += start.sequence();
+        }
+        return new PageCursor(lastDate, sameDay);
+    }
+
+    /**
+     * A range covering every transaction of the category, such as the default 1970 to today,
+     * is answered from the repository's running totals in constant time.
+     */
     public CategoryTotalDTO getTotalOutgoingForCategory(String category, LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_TOTAL);
-        return new CategoryTotalDTO(category, calculateTotalAmount(transactions));
+        double total = cached(AggregateCache.Operation.TOTAL, category, startDate, endDate, () -> {
+            AmountAccumulator totals = transactionRepository.runningTotals().category(category);
+            if (totals != null && totals.count() > 0 && startDate != null && endDate != null
+                    && totals.coversAll(startDate.toEpochDay(), endDate.toEpochDay())) {
+                return roundToTwoDecimalPlaces(totals.sum());
+            }
+            return calculateTotalAmount(fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_TOTAL));
+        });
+        return new CategoryTotalDTO(category, total);
     }
 
     public MaxAmountDTO getMaxAmountForCategory(String category, LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_MAX);
-        return new MaxAmountDTO(category, calculateMaxAmount(transactions), startDate, endDate);
+        double max = cached(AggregateCache.Operation.MAX, category, startDate, endDate, () -> {
+            NavigableMap<YearMonth, DoubleSummaryStatistics> rollup =
+                    fetchMonthlyRollup(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_MAX);
+            if (rollup != null) {
+                return roundToTwoDecimalPlaces(rollup.values().stream().mapToDouble(DoubleSummaryStatistics::getMax).max().orElse(0.0));
+            }
+            return calculateMaxAmount(fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_MAX));
+        });
+        return new MaxAmountDTO(category, max, startDate, endDate);
     }
 
     public MinAmountDTO getMinAmountForCategory(String category, LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_MIN);
-        return new MinAmountDTO(category, calculateMinAmount(transactions), startDate, endDate);
+        double min = cached(AggregateCache.Operation.MIN, category, startDate, endDate, () -> {
+            NavigableMap<YearMonth, DoubleSummaryStatistics> rollup =
+                    fetchMonthlyRollup(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_MIN);
+            if (rollup != null) {
+                return roundToTwoDecimalPlaces(rollup.values().stream().mapToDouble(DoubleSummaryStatistics::getMin).min().orElse(0.0));
+            }
+            return calculateMinAmount(fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_MIN));
+        });
+        return new MinAmountDTO(category, min, startDate, endDate);
+    }
+
+    public TopTransactionsDTO getTopTransactionsForCategory(String category, LocalDate startDate, LocalDate endDate, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidQueryException(ErrorMessages.INVALID_PAGE_LIMIT.formatted(MAX_PAGE_SIZE));
+        }
+        List<Transaction> top = fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_TOP)
+                .topByAmount(limit);
+        return new TopTransactionsDTO(category, startDate, endDate, top);
     }
 
+    /**
+     * Nearest-rank percentiles of the amounts, estimated from quantile sketches; exact while a
+     * category has no more than a couple of hundred transactions per month.
+     */
+    public PercentilesDTO getPercentilesForCategory(String category, LocalDate startDate, LocalDate endDate, List<Double> percentiles) {
+        for (double percentile : percentiles) {
+            if (!(percentile > 0 && percentile <= 100)) {
+                throw new InvalidQueryException(ErrorMessages.INVALID_PERCENTILE.formatted(percentileName(percentile)));
+            }
+        }
+        QuantileSketch sketch = fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_PERCENTILES)
+                .amountSketch();
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double percentile : percentiles) {
+            values.put("p" + percentileName(percentile),
+                    roundToTwoDecimalPlaces(sketch.quantile(percentile / 100)));
+        }
+        return new PercentilesDTO(category, startDate, endDate, sketch.count(), values);
+    }
+
+    private String percentileName(double percentile) {
+        return BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Ranges of whole calendar months, such as the yearly report, are answered from the
+     * monthly rollup without reading any transaction.
+     */
     public MonthlyAverageDTO getMonthlyAverageSpendForCategory(String category, LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_AVERAGE);
-        Map<String, Double> monthlyAverages = calculateMonthlyAverages(transactions);
+        Map<String, Double> monthlyAverages = cached(AggregateCache.Operation.MONTHLY_AVERAGE, category, startDate, endDate, () -> {
+            NavigableMap<YearMonth, DoubleSummaryStatistics> rollup =
+                    fetchMonthlyRollup(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_AVERAGE);
+            if (rollup != null) {
+                Map<String, Double> averages = new HashMap<>();
+                rollup.forEach((month, statistics) -> averages.put(month.toString(), roundToTwoDecimalPlaces(statistics.getAverage())));
+                return Collections.unmodifiableMap(averages);
+            }
+            return calculateMonthlyAverages(fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_AVERAGE)
+                    .getTransactions());
+        });
         return new MonthlyAverageDTO(category, String.valueOf(startDate.getYear()), monthlyAverages);
     }
 
-    private List<Transaction> fetchTransactionsForCalculation(String category, LocalDate startDate, LocalDate endDate, String errorMessage) {
+    public CategorySummaryDTO getSummaryForCategory(String category, LocalDate startDate, LocalDate endDate) {
+        AmountStatistics statistics = cached(AggregateCache.Operation.SUMMARY, category, startDate, endDate,
+                () -> fetchTransactionsForCalculation(category, startDate, endDate, ErrorMessages.UNABLE_TO_CALCULATE_SUMMARY).summarize());
+        Map<String, Double> monthlyAverages = new LinkedHashMap<>();
+        statistics.getMonthlyStatistics().forEach((month, monthStatistics) ->
+                monthlyAverages.put(month.toString(), roundToTwoDecimalPlaces(monthStatistics.getAverage())));
+        return new CategorySummaryDTO(category, startDate, endDate, statistics.getCount(),
+                roundToTwoDecimalPlaces(statistics.getSum()),
+                roundToTwoDecimalPlaces(statistics.getMin()),
+                roundToTwoDecimalPlaces(statistics.getMax()),
+                roundToTwoDecimalPlaces(statistics.getAverage()),
+                monthlyAverages);
+    }
+
+    /**
+     * Groups the transactions matching the optional filters by {@code dimensions} and computes
+     * {@code metrics} per group; all metrics when none are given.
+     */
+    public GroupByResultDTO groupBy(List<String> dimensions, List<String> metrics, String category, String vendor,
+                                    String product, LocalDate startDate, LocalDate endDate) {
+        List<GroupDimension> groupDimensions = dimensions.stream().map(this::parseDimension).distinct().toList();
+        List<AggregationMetric> aggregationMetrics = metrics == null || metrics.isEmpty()
+                ? List.of(AggregationMetric.values())
+                : metrics.stream().map(this::parseMetric).distinct().toList();
+        List<TransactionGroup> groups = transactionRepository.filterQuery()
+                .byCategory(category)
+                .byVendor(vendor)
+                .byProduct(product)
+                .byDateRange(startDate, endDate)
+                .groupBy(groupDimensions);
+
+        List<String> dimensionNames = groupDimensions.stream().map(dimension -> dimension.name().toLowerCase(Locale.ROOT)).toList();
+        List<GroupDTO> groupResults = new ArrayList<>(groups.size());
+        for (TransactionGroup group : groups) {
+            Map<String, String> key = new LinkedHashMap<>();
+            for (int d = 0; d < dimensionNames.size(); d++) {
+                key.put(dimensionNames.get(d), group.key().get(d));
+            }
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (AggregationMetric metric : aggregationMetrics) {
+                values.put(metric.jsonName(), metricValue(group, metric));
+            }
+            groupResults.add(new GroupDTO(key, values));
+        }
+        return new GroupByResultDTO(dimensionNames, aggregationMetrics.stream().map(AggregationMetric::jsonName).toList(), groupResults);
+    }
+
+    private GroupDimension parseDimension(String dimension) {
+        try {
+            return GroupDimension.valueOf(dimension.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryException(ErrorMessages.UNKNOWN_GROUP_DIMENSION.formatted(dimension));
+        }
+    }
+
+    private AggregationMetric parseMetric(String metric) {
+        return AggregationMetric.fromJsonName(metric)
+                .orElseThrow(() -> new InvalidQueryException(ErrorMessages.UNKNOWN_METRIC.formatted(metric)));
+    }
+
+    private double metricValue(TransactionGroup group, AggregationMetric metric) {
+        return switch (metric) {
+            case TOTAL -> roundToTwoDecimalPlaces(group.sum());
+            case MIN -> roundToTwoDecimalPlaces(group.min());
+            case MAX -> roundToTwoDecimalPlaces(group.max());
+            case AVERAGE -> roundToTwoDecimalPlaces(group.average());
+            case COUNT -> group.count();
+        };
+    }
+
+    /**
+     * The transactions matching all of the optional filters, latest first. Strings match
+     * ignoring case and amount bounds are inclusive.
+     */
+    public TransactionSearchResultDTO searchTransactions(String category, String vendor, String product, Double minAmount,
+                                                         Double maxAmount, LocalDate startDate, LocalDate endDate) {
+        validateAmountRange(minAmount, maxAmount);
+        List<Transaction> transactions = transactionRepository.filterQuery()
+                .byCategory(category)
+                .byVendor(vendor)
+                .byProduct(product)
+                .byAmountRange(minAmount, maxAmount)
+                .byDateRange(startDate, endDate)
+                .sortByLatest()
+                .getTransactions();
+        return new TransactionSearchResultDTO(transactions.size(), transactions);
+    }
+
+    /**
+     * Plans the query the optional filters describe and returns the chosen steps with their
+     * estimated and actual row counts, without materializing any transactions.
+     */
+    public QueryPlanDTO explainQuery(String category, String vendor, String product, Double minAmount, Double maxAmount,
+                                     LocalDate startDate, LocalDate endDate, boolean latestFirst) {
+        validateAmountRange(minAmount, maxAmount);
         TransactionFilterQuery query = transactionRepository.filterQuery()
                 .byCategory(category)
+                .byVendor(vendor)
+                .byProduct(product)
+                .byAmountRange(minAmount, maxAmount)
                 .byDateRange(startDate, endDate);
+        if (latestFirst) {
+            query.sortByLatest();
+        }
+        QueryPlan plan = query.explain();
+        List<QueryPlanStepDTO> steps = plan.steps().stream()
+                .map(step -> new QueryPlanStepDTO(step.operation(), step.estimatedRows(), step.actualRows()))
+                .toList();
+        return new QueryPlanDTO(query.count(), plan.segments(), plan.prunedSegments(), steps);
+    }
+
+    private void validateAmountRange(Double minAmount, Double maxAmount) {
+        if (minAmount != null && maxAmount != null && minAmount > maxAmount) {
+            throw new InvalidQueryException(ErrorMessages.INVALID_AMOUNT_RANGE);
+        }
+    }
 
-        if (query.getTransactions().isEmpty()) {
+    public IngestResultDTO appendTransactions(List<Transaction> transactions) {
+        for (int i = 0; i < transactions.size(); i++) {
+            validateTransaction(i, transactions.get(i));
+        }
+        transactionRepository.append(transactions);
+        return new IngestResultDTO(transactions.size(), transactionRepository.filterQuery().count());
+    }
+
+    private void validateTransaction(int index, Transaction transaction) {
+        if (transaction == null) {
+            throw new InvalidTransactionException(ErrorMessages.NULL_TRANSACTION.formatted(index));
+        }
+        String missingField = transaction.getDate() == null ? "date"
+                : transaction.getCategory() == null ? "category"
+                : transaction.getVendor() == null ? "vendor"
+                : transaction.getProduct() == null ? "product"
+                : null;
+        if (missingField != null) {
+            throw new InvalidTransactionException(ErrorMessages.MISSING_TRANSACTION_FIELD.formatted(index, missingField));
+        }
+    }
+
+    /**
+     * Reads the generation before computing, so a result computed while the dataset changes is
+     * filed under the old generation and never served for the new one.
+     */
+    private <T> T cached(AggregateCache.Operation operation, String category, LocalDate startDate, LocalDate endDate, Supplier<T> compute) {
+        return aggregateCache.get(operation, TransactionRepositoryImpl.normalizeCategory(category), startDate, endDate,
+                transactionRepository.generation(), compute);
+    }
+
+    private TransactionFilterQuery fetchTransactionsForCalculation(String category, LocalDate startDate, LocalDate endDate, String errorMessage) {
+        TransactionFilterQuery query = transactionRepository.filterQuery()
+                .byCategory(category)
+                .byDateRange(startDate, endDate);
+
+        if (query.count() == 0) {
+            throw new UnableToCalculateException(formatError(errorMessage, category));
+        }
+        return query;
+    }
+
+    /**
+     * Per-month statistics from the repository's monthly rollup when {@code startDate} and
+     * {@code endDate} bound whole calendar months, or {@code null} when the range has to be
+     * answered from the rows.
+     */
+    private NavigableMap<YearMonth, DoubleSummaryStatistics> fetchMonthlyRollup(String category, LocalDate startDate, LocalDate endDate, String errorMessage) {
+        if (startDate == null || endDate == null || startDate.getDayOfMonth() != 1
+                || !endDate.equals(YearMonth.from(endDate).atEndOfMonth())) {
+            return null;
+        }
+        NavigableMap<YearMonth, DoubleSummaryStatistics> rollup =
+                transactionRepository.monthlyRollup(category, YearMonth.from(startDate), YearMonth.from(endDate));
+        if (rollup.isEmpty()) {
             throw new UnableToCalculateException(formatError(errorMessage, category));
         }
-        return query.getTransactions();
+        return rollup;
     }
 
-    private double calculateTotalAmount(List<Transaction> transactions) {
-        double sum = transactions.stream().mapToDouble(Transaction::getAmount).sum();
+    private double calculateTotalAmount(TransactionFilterQuery query) {
+        double sum = query.sumAmounts();
         return roundToTwoDecimalPlaces(sum);
     }
 
-    private double calculateMaxAmount(List<Transaction> transactions) {
-        double max = transactions.stream().mapToDouble(Transaction::getAmount).max().orElse(0.0);
+    private double calculateMaxAmount(TransactionFilterQuery query) {
+        double max = query.maxAmount().orElse(0.0);
         return roundToTwoDecimalPlaces(max);
     }
 
-    private double calculateMinAmount(List<Transaction> transactions) {
-        double min = transactions.stream().mapToDouble(Transaction::getAmount).min().orElse(0.0);
+    private double calculateMinAmount(TransactionFilterQuery query) {
+        double min = query.minAmount().orElse(0.0);
         return roundToTwoDecimalPlaces(min);
     }
 
     private Map<String, Double> calculateMonthlyAverages(List<Transaction> transactions) {
-        return transactions.stream()
+        return Collections.unmodifiableMap(transactions.stream()
                 .collect(Collectors.groupingBy(
                         this::groupByYearMonth,
                         Collectors.collectingAndThen(
                                 Collectors.averagingDouble(Transaction::getAmount),
                                 this::roundToTwoDecimalPlaces)
-                ));
+                )));
     }
 
     private String groupByYearMonth(Transaction transaction) {
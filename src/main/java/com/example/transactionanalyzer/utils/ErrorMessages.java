@@ -6,6 +6,21 @@ public class ErrorMessages {
     public static final String UNABLE_TO_CALCULATE_TOTAL = "Unable to calculate total outgoing for category '%s' due to insufficient data.";
     public static final String UNABLE_TO_CALCULATE_MAX = "Unable to calculate max amount for category '%s' due to insufficient data.";
     public static final String UNABLE_TO_CALCULATE_MIN = "Unable to calculate min amount for category '%s' due to insufficient data.";
+    public static final String UNABLE_TO_CALCULATE_SUMMARY = "Unable to calculate summary for category '%s' due to insufficient data.";
+    public static final String UNABLE_TO_CALCULATE_TOP = "Unable to find top transactions for category '%s' due to insufficient data.";
+    public static final String UNABLE_TO_CALCULATE_PERCENTILES = "Unable to calculate percentiles for category '%s' due to insufficient data.";
     public static final String INVALID_DATE_FORMAT_ERROR = "Invalid date format '%s'.";
     public static final String INVALID_DATE_RANGE = "Start date must not be later than the end date.";
+    public static final String INVALID_AMOUNT_RANGE = "Minimum amount must not be greater than the maximum amount.";
+    public static final String MISSING_TRANSACTION_FIELD = "Transaction %d is missing required field '%s'.";
+    public static final String NULL_TRANSACTION = "Transaction %d is null.";
+    public static final String EMPTY_BATCH = "A batch must contain at least one query.";
+    public static final String MISSING_BATCH_QUERY_FIELD = "Query %d is missing required field '%s'.";
+    public static final String BATCH_TOO_LARGE = "A batch of %d queries exceeds the limit of %d.";
+    public static final String UNKNOWN_GROUP_DIMENSION = "Unknown group-by dimension '%s'. Use category, vendor, product, day, week, month or year.";
+    public static final String UNKNOWN_METRIC = "Unknown metric '%s'. Use total, min, max, average or count.";
+    public static final String INVALID_CURSOR = "Invalid cursor '%s'.";
+    public static final String INVALID_PAGE_LIMIT = "Limit must be between 1 and %d.";
+    public static final String INVALID_PERCENTILE = "Percentile %s must be greater than 0 and at most 100.";
+    public static final String RELOAD_FAILED = "Failed to reload transactions: %s";
 }
\ No newline at end of file
@@ -1,25 +1,292 @@
 package com.example.transactionanalyzer.utils;
 
 import com.example.transactionanalyzer.model.Transaction;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class JsonLoader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_CHUNK_BYTES = 16 << 20;
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+
     public static List<Transaction> loadTransactionsFromJson(String filePath) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        List<Transaction> transactions = new ArrayList<>();
+        streamTransactionsFromJson(filePath, transactions::add);
+        return transactions;
+    }
+
+    /**
+     * Reads the JSON array of transactions one element at a time and hands each record to
+     * {@code sink}, so the file is never bound into an intermediate list or tree.
+     */
+    public static void streamTransactionsFromJson(String filePath, Consumer<Transaction> sink) {
+        try (JsonParser parser = JSON_FACTORY.createParser(Paths.get(filePath).toFile())) {
+            readTransactions(parser, 0, sink);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load transactions from JSON", e);
+        }
+    }
+
+    /**
+     * Parses the file on a {@link ForkJoinPool} of {@code parallelism} workers. A quick scan
+     * splits the file into byte ranges that start and end on record boundaries, each range is
+     * parsed into its own sink from {@code sinkFactory}, and the sinks are returned in file
+     * order for the caller to merge.
+     */
+    public static <S extends Consumer<Transaction>> List<S> streamTransactionsFromJsonInParallel(
+            String filePath, int parallelism, Supplier<S> sinkFactory) {
+        return streamTransactionsFromJsonInParallel(filePath, parallelism, MAX_CHUNK_BYTES, sinkFactory);
+    }
+
+    /**
+     * Same as {@link #streamTransactionsFromJsonInParallel(String, int, Supplier)}, with each
+     * chunk parsed as a task of {@code executor}, e.g. one virtual thread per chunk. The file is
+     * still split for {@code parallelism} workers; the executor is left running.
+     */
+    public static <S extends Consumer<Transaction>> List<S> streamTransactionsFromJsonInParallel(
+            String filePath, int parallelism, ExecutorService executor, Supplier<S> sinkFactory) {
+        return streamTransactionsFromJsonInParallel(filePath, parallelism, MAX_CHUNK_BYTES, executor, sinkFactory);
+    }
+
+    static <S extends Consumer<Transaction>> List<S> streamTransactionsFromJsonInParallel(
+            String filePath, int parallelism, int maxChunkBytes, Supplier<S> sinkFactory) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
         try {
-            return objectMapper.readValue(
-                    Paths.get(filePath).toFile(),
-                    new TypeReference<List<Transaction>>() {}
-            );
+            return streamTransactionsFromJsonInParallel(filePath, parallelism, maxChunkBytes, pool, sinkFactory);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <S extends Consumer<Transaction>> List<S> streamTransactionsFromJsonInParallel(
+            String filePath, int parallelism, int maxChunkBytes, ExecutorService executor, Supplier<S> sinkFactory) {
+        List<Future<S>> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long chunkBytes = Math.max(1, Math.min(maxChunkBytes, channel.size() / (parallelism * 4L)));
+            for (Chunk chunk : splitIntoChunks(channel, chunkBytes)) {
+                tasks.add(executor.submit(() -> parseChunk(channel, chunk, sinkFactory.get())));
+            }
+            List<S> sinks = new ArrayList<>(tasks.size());
+            for (Future<S> task : tasks) {
+                sinks.add(task.get());
+            }
+            return sinks;
         } catch (IOException e) {
             throw new RuntimeException("Failed to load transactions from JSON", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to load transactions from JSON", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading transactions from JSON", e);
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private static <S extends Consumer<Transaction>> S parseChunk(FileChannel channel, Chunk chunk, S sink) {
+        int length = Math.toIntExact(chunk.end() - chunk.start());
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = '[';
+        bytes[length + 1] = ']';
+        ByteBuffer target = ByteBuffer.wrap(bytes, 1, length);
+        try {
+            while (target.hasRemaining()) {
+                if (channel.read(target, chunk.start() + target.position() - 1) < 0) {
+                    throw new EOFException("Unexpected end of file at offset " + chunk.start());
+                }
+            }
+            try (JsonParser parser = JSON_FACTORY.createParser(bytes)) {
+                readTransactions(parser, chunk.firstRecord(), sink);
+            }
+            return sink;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds record boundaries by tracking string and nesting state byte by byte, which is far
+     * cheaper than parsing, and cuts a chunk at the first record starting {@code chunkBytes}
+     * after the current chunk's first record. Chunks exclude the separators between them.
+     * <p>
+     * The scan also checks what the chunks cannot: that the file is one array, that every
+     * element is an object and that the array is closed, so a truncated or malformed file fails
+     * here just as it fails the sequential loader.
+     */
+    private static List<Chunk> splitIntoChunks(FileChannel channel, long chunkBytes) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long chunkStart = -1;
+        long lastRecordEnd = -1;
+        long records = 0;
+        long chunkFirstRecord = 0;
+        int depth = 0;
+        boolean opened = false;
+        boolean inString = false;
+        boolean escaped = false;
+        long position = 0;
+        scan:
+        while (channel.read(buffer.clear(), position) > 0) {
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++) {
+                byte b = buffer.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                } else if (depth == 0) {
+                    if (opened) {
+                        break scan;
+                    }
+                    if (b == '[') {
+                        opened = true;
+                        depth++;
+                    } else if (!isWhitespace(b)) {
+                        throw new IOException("Expected a JSON array of transactions");
+                    }
+                } else if (depth == 1) {
+                    if (b == '{') {
+                        depth++;
+                        long recordStart = position + i;
+                        if (chunkStart < 0) {
+                            chunkStart = recordStart;
+                            chunkFirstRecord = records;
+                        } else if (recordStart - chunkStart >= chunkBytes) {
+                            chunks.add(chunk(chunkStart, lastRecordEnd, chunkFirstRecord));
+                            chunkStart = recordStart;
+                            chunkFirstRecord = records;
+                        }
+                        records++;
+                    } else if (b == ']') {
+                        depth--;
+                    } else if (b != ',' && !isWhitespace(b)) {
+                        throw new IOException("Expected a transaction object at offset " + (position + i));
+                    }
+                } else if (b == '"') {
+                    inString = true;
+                } else if (b == '[' || b == '{') {
+                    depth++;
+                } else if (b == ']' || b == '}') {
+                    depth--;
+                    if (depth == 1) {
+                        lastRecordEnd = position + i + 1;
+                    }
+                }
+            }
+            position += buffer.limit();
         }
+        if (!opened || depth > 0) {
+            throw new EOFException("Unexpected end of JSON array of transactions");
+        }
+        if (chunkStart >= 0) {
+            chunks.add(chunk(chunkStart, lastRecordEnd, chunkFirstRecord));
+        }
+        return chunks;
+    }
+
+    private static Chunk chunk(long start, long end, long firstRecord) throws IOException {
+        if (end < start) {
+            throw new IOException("Misaligned chunk of transactions at offset " + start);
+        }
+        return new Chunk(start, end, firstRecord);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * Every record needs a date and a category, which partitioning and the category runs are
+     * built from; a record without one fails the load, named by its index in the whole file.
+     */
+    private static void readTransactions(JsonParser parser, long firstRecord, Consumer<Transaction> sink) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected a JSON array of transactions");
+        }
+        StringInterner interner = new StringInterner();
+        JsonToken token;
+        long record = firstRecord;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            Transaction transaction = readTransaction(parser, interner);
+            if (transaction.getDate() == null) {
+                throw new JsonParseException(parser, "Transaction " + record + " has no date");
+            }
+            if (transaction.getCategory() == null) {
+                throw new JsonParseException(parser, "Transaction " + record + " has no category");
+            }
+            sink.accept(transaction);
+            record++;
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new JsonParseException(parser, "Expected a transaction object but found " + token);
+        }
+    }
+
+    private static Transaction readTransaction(JsonParser parser, StringInterner interner) throws IOException {
+        Transaction transaction = new Transaction();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "date" -> transaction.setDate(parseDate(parser));
+                case "vendor" -> transaction.setVendor(readString(parser, interner));
+                case "product" -> transaction.setProduct(readString(parser, interner));
+                case "amount" -> transaction.setAmount(parser.getValueAsDouble());
+                case "category" -> transaction.setCategory(readString(parser, interner));
+                default -> parser.skipChildren();
+            }
+        }
+        return transaction;
+    }
+
+    /**
+     * String values are interned straight from the parser's buffer, so a repeated value costs
+     * no allocation and every transaction of the load shares one instance of it.
+     */
+    private static String readString(JsonParser parser, StringInterner interner) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return parser.getValueAsString();
+        }
+        return interner.intern(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private static LocalDate parseDate(JsonParser parser) throws IOException {
+        String value = parser.getValueAsString();
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException(parser, "Invalid transaction date '" + value + "'", e);
+        }
+    }
+
+    /**
+     * @param firstRecord index in the whole file of the chunk's first record
+     */
+    private record Chunk(long start, long end, long firstRecord) {
     }
 }
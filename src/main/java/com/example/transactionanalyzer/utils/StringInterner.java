@@ -0,0 +1,83 @@
+package com.example.transactionanalyzer.utils;
+
+/**
+ * Canonical string instances for values read from a parser's character buffer. A value that
+ * was seen before is returned without allocating a new {@link String}, so repeated vendors,
+ * products and categories share one instance and one cached hash code.
+ * <p>
+ * Only the first {@value #MAX_ENTRIES} distinct values are kept; later ones are returned as new
+ * strings, so a high-cardinality field cannot grow the table without bound. Not thread-safe:
+ * use one interner per parser.
+ */
+class StringInterner {
+
+    private static final int MAX_ENTRIES = 1 << 16;
+
+    private String[] values = new String[256];
+    private int[] hashes = new int[256];
+    private int size;
+
+    String intern(char[] buffer, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int mask = values.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            String value = values[slot];
+            if (value == null) {
+                String created = new String(buffer, offset, length);
+                if (size < MAX_ENTRIES) {
+                    values[slot] = created;
+                    hashes[slot] = hash;
+                    if (++size * 2 > values.length) {
+                        grow();
+                    }
+                }
+                return created;
+            }
+            if (hashes[slot] == hash && matches(value, buffer, offset, length)) {
+                return value;
+            }
+        }
+    }
+
+    private static boolean matches(String value, char[] buffer, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        String[] oldValues = values;
+        int[] oldHashes = hashes;
+        values = new String[oldValues.length * 2];
+        hashes = new int[oldValues.length * 2];
+        int mask = values.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = mix(oldHashes[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the string hash so that values differing only in their last character do not
+     * land in neighbouring slots.
+     */
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
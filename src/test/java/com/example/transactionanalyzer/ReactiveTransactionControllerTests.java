@@ -0,0 +1,108 @@
+package com.example.transactionanalyzer;
+
+import com.example.transactionanalyzer.controller.ReactiveTransactionController;
+import com.example.transactionanalyzer.dto.CategoryTotalDTO;
+import com.example.transactionanalyzer.exceptions.CategoryNotFoundException;
+import com.example.transactionanalyzer.exceptions.UnableToCalculateException;
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.services.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReactiveTransactionController.class)
+class ReactiveTransactionControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @Test
+    void getTransactionsByCategory_ShouldStreamNdjson() throws Exception {
+        Transaction first = new Transaction();
+        first.setDate(LocalDate.of(2024, 1, 2));
+        first.setVendor("Landlord");
+        Transaction second = new Transaction();
+        second.setDate(LocalDate.of(2024, 1, 1));
+        second.setVendor("Landlord");
+
+        Mockito.when(transactionService.streamTransactionsByCategory("rent")).thenReturn(List.of(first, second).iterator());
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/transactions/categories/{category}", "rent")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"date\":\"2024-01-02\",\"vendor\":\"Landlord\",\"product\":null,\"amount\":0.0,\"category\":null}\n"
+                                + "{\"date\":\"2024-01-01\",\"vendor\":\"Landlord\",\"product\":null,\"amount\":0.0,\"category\":null}\n"));
+    }
+
+    @Test
+    void getTransactionsByCategory_UnknownCategory_ShouldReturnJsonError() throws Exception {
+        Mockito.when(transactionService.streamTransactionsByCategory("nope"))
+                .thenThrow(new CategoryNotFoundException("Category 'nope' not found."));
+
+        mockMvc.perform(get("/api/reactive/transactions/categories/{category}", "nope")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Category 'nope' not found."));
+    }
+
+    @Test
+    void getTotalOutgoingForCategory_ShouldEmitDto() throws Exception {
+        Mockito.when(transactionService.getTotalOutgoingForCategory(eq("rent"), any(), any()))
+                .thenReturn(new CategoryTotalDTO("rent", 1200.0));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/transactions/categories/{category}/total", "rent"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(1200.0));
+    }
+
+    @Test
+    void getTotalOutgoingForCategory_NoData_ShouldReturn400() throws Exception {
+        Mockito.when(transactionService.getTotalOutgoingForCategory(eq("rent"), any(), any()))
+                .thenThrow(new UnableToCalculateException("Unable to calculate total for category 'rent'."));
+
+        MvcResult result = mockMvc.perform(get("/api/reactive/transactions/categories/{category}/total", "rent"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unable to calculate total for category 'rent'."));
+    }
+
+    @Test
+    void getTotalOutgoingForCategory_InvalidRange_ShouldFailBeforeSubscribing() throws Exception {
+        mockMvc.perform(get("/api/reactive/transactions/categories/{category}/total", "rent")
+                        .param("startDate", "2024-02-01")
+                        .param("endDate", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+        Mockito.verifyNoInteractions(transactionService);
+    }
+}
@@ -4,23 +4,35 @@ import com.example.transactionanalyzer.controller.TransactionController;
 import com.example.transactionanalyzer.dto.*;
 import com.example.transactionanalyzer.exceptions.CategoryNotFoundException;
 import com.example.transactionanalyzer.exceptions.InvalidDateRangeException;
+import com.example.transactionanalyzer.exceptions.InvalidQueryException;
+import com.example.transactionanalyzer.exceptions.InvalidTransactionException;
 import com.example.transactionanalyzer.exceptions.UnableToCalculateException;
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.services.BatchAggregationService;
 import com.example.transactionanalyzer.services.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TransactionController.class)
@@ -32,6 +44,9 @@ class TransactionAnalyzerApplicationTests {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private BatchAggregationService batchAggregationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -202,4 +217,227 @@ class TransactionAnalyzerApplicationTests {
                 .andExpect(jsonPath("$.category").value(category))
                 .andExpect(jsonPath("$.minAmount").value(30.0));
     }
+
+    @Test
+    void appendTransactions_ShouldReturnCreated() throws Exception {
+        Mockito.when(transactionService.appendTransactions(any())).thenReturn(new IngestResultDTO(1, 101));
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"date\":\"2024-03-01\",\"vendor\":\"Tesco\",\"product\":\"Milk\",\"amount\":1.5,\"category\":\"Groceries\"}]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.acceptedCount").value(1))
+                .andExpect(jsonPath("$.transactionCount").value(101));
+    }
+
+    @Test
+    void appendTransactions_MissingField_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(transactionService.appendTransactions(any()))
+                .thenThrow(new InvalidTransactionException("Transaction 0 is missing required field 'date'."));
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"vendor\":\"Tesco\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Transaction 0 is missing required field 'date'."));
+    }
+
+    @Test
+    void getSummaryForCategory_ShouldReturnSummary() throws Exception {
+        String category = "groceries";
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2024, 6, 1);
+        CategorySummaryDTO response = new CategorySummaryDTO(category, startDate, endDate, 3, 60.0, 10.0, 30.0, 20.0,
+                Map.of("2024-01", 20.0));
+
+        Mockito.when(transactionService.getSummaryForCategory(category, startDate, endDate)).thenReturn(response);
+
+        mockMvc.perform(get("/api/transactions/categories/{category}/summary", category)
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-06-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.totalAmount").value(60.0))
+                .andExpect(jsonPath("$.monthlyAverages['2024-01']").value(20.0));
+    }
+
+    @Test
+    void getSummaryForCategory_InvalidDateRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/transactions/categories/{category}/summary", "groceries")
+                        .param("startDate", "2024-06-01")
+                        .param("endDate", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void aggregate_ShouldReturnResultsInRequestOrder() throws Exception {
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2024, 6, 1);
+        BatchAggregationResultDTO response = new BatchAggregationResultDTO(List.of(
+                new AggregationResultDTO("rent", startDate, endDate, AggregationMetric.TOTAL, 5, 4500.0),
+                new AggregationResultDTO("travel", startDate, endDate, AggregationMetric.MAX, 0, null)));
+
+        Mockito.when(batchAggregationService.aggregate(any())).thenReturn(response);
+
+        mockMvc.perform(post("/api/transactions/aggregations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"queries\":[{\"category\":\"rent\",\"startDate\":\"2024-01-01\",\"endDate\":\"2024-06-01\",\"metric\":\"total\"},"
+                                + "{\"category\":\"travel\",\"startDate\":\"2024-01-01\",\"endDate\":\"2024-06-01\",\"metric\":\"max\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].metric").value("total"))
+                .andExpect(jsonPath("$.results[0].value").value(4500.0))
+                .andExpect(jsonPath("$.results[1].count").value(0));
+    }
+
+    @Test
+    void groupBy_ShouldReturnGroups() throws Exception {
+        GroupByResultDTO response = new GroupByResultDTO(List.of("vendor", "month"), List.of("total"), List.of(
+                new GroupDTO(Map.of("vendor", "Tesco", "month", "2024-01"), Map.of("total", 42.5))));
+
+        Mockito.when(transactionService.groupBy(eq(List.of("vendor", "month")), eq(List.of("total")), eq("groceries"), any(), any(), any(), any()))
+                .thenReturn(response);
+
+        mockMvc.perform(get("/api/transactions/group-by")
+                        .param("dimensions", "vendor,month")
+                        .param("metrics", "total")
+                        .param("category", "groceries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groups[0].key.vendor").value("Tesco"))
+                .andExpect(jsonPath("$.groups[0].values.total").value(42.5));
+    }
+
+    @Test
+    void groupBy_UnknownDimension_ShouldReturnBadRequest() throws Exception {
+        Mockito.when(transactionService.groupBy(eq(List.of("colour")), any(), any(), any(), any(), any(), any()))
+                .thenThrow(new InvalidQueryException("Unknown group-by dimension 'colour'."));
+
+        mockMvc.perform(get("/api/transactions/group-by").param("dimensions", "colour"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown group-by dimension 'colour'."));
+    }
+
+    @Test
+    void searchTransactions_ShouldPassFilters() throws Exception {
+        Transaction transaction = new Transaction();
+        transaction.setVendor("Airbnb");
+        transaction.setAmount(650.0);
+        TransactionSearchResultDTO response = new TransactionSearchResultDTO(1, List.of(transaction));
+
+        Mockito.when(transactionService.searchTransactions(null, "airbnb", null, 500.0, null,
+                        LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30)))
+                .thenReturn(response);
+
+        mockMvc.perform(get("/api/transactions/search")
+                        .param("vendor", "airbnb")
+                        .param("minAmount", "500")
+                        .param("startDate", "2024-04-01")
+                        .param("endDate", "2024-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.transactions[0].amount").value(650.0));
+    }
+
+    @Test
+    void getTransactionPageByCategory_ShouldReturnPageWithCursor() throws Exception {
+        String category = "rent";
+        TransactionPageDTO response = new TransactionPageDTO(category, Collections.emptyList(), "abc");
+
+        Mockito.when(transactionService.getTransactionPageByCategory(category, null, 2)).thenReturn(response);
+
+        mockMvc.perform(get("/api/transactions/categories/{category}", category).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.transactions").isArray());
+    }
+
+    @Test
+    void streamTransactionsByCategory_ShouldWriteNdjson() throws Exception {
+        Transaction first = new Transaction();
+        first.setDate(LocalDate.of(2024, 1, 2));
+        first.setVendor("Landlord");
+        Transaction second = new Transaction();
+        second.setDate(LocalDate.of(2024, 1, 1));
+        second.setVendor("Landlord");
+
+        Mockito.when(transactionService.streamTransactionsByCategory("rent")).thenReturn(List.of(first, second).iterator());
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/categories/{category}", "rent")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("2024-01-02", objectMapper.readTree(lines.get(0)).get("date").asText());
+    }
+
+    @Test
+    void streamTransactionsByCategory_UnknownCategory_ShouldReturnJsonError() throws Exception {
+        Mockito.when(transactionService.streamTransactionsByCategory("nope"))
+                .thenThrow(new CategoryNotFoundException("Category 'nope' not found."));
+
+        mockMvc.perform(get("/api/transactions/categories/{category}", "nope")
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Category 'nope' not found."));
+    }
+
+    @Test
+    void getTransactionsByCategory_ShouldEncodeTheSameDocumentInCborAndSmile() throws Exception {
+        Transaction transaction = new Transaction();
+        transaction.setDate(LocalDate.of(2024, 1, 2));
+        transaction.setVendor("Landlord");
+        transaction.setProduct("Rent");
+        transaction.setAmount(1200.0);
+        transaction.setCategory("rent");
+        CategoryTransactionsDTO response = new CategoryTransactionsDTO("rent", List.of(transaction, transaction));
+
+        Mockito.when(transactionService.getTransactionsByCategory("rent")).thenReturn(response);
+
+        String json = mockMvc.perform(get("/api/transactions/categories/{category}", "rent"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        byte[] cbor = mockMvc.perform(get("/api/transactions/categories/{category}", "rent").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/api/transactions/categories/{category}", "rent").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(objectMapper.readTree(json), new ObjectMapper(new CBORFactory()).readTree(cbor));
+        assertEquals(objectMapper.readTree(json), new ObjectMapper(new SmileFactory()).readTree(smile));
+    }
+
+    @Test
+    void getTopTransactionsForCategory_ShouldReturnTransactions() throws Exception {
+        String category = "travel";
+        TopTransactionsDTO response = new TopTransactionsDTO(category, LocalDate.of(1970, 1, 1), LocalDate.of(2024, 1, 1), Collections.emptyList());
+
+        Mockito.when(transactionService.getTopTransactionsForCategory(eq(category), any(), any(), eq(5))).thenReturn(response);
+
+        mockMvc.perform(get("/api/transactions/categories/{category}/top", category).param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category").value(category))
+                .andExpect(jsonPath("$.transactions").isArray());
+    }
+
+    @Test
+    void getPercentilesForCategory_ShouldReturnPercentiles() throws Exception {
+        String category = "travel";
+        PercentilesDTO response = new PercentilesDTO(category, LocalDate.of(1970, 1, 1), LocalDate.of(2024, 1, 1), 40,
+                Map.of("p50", 120.0, "p99.9", 480.0));
+
+        Mockito.when(transactionService.getPercentilesForCategory(eq(category), any(), any(), eq(List.of(50.0, 99.9))))
+                .thenReturn(response);
+
+        mockMvc.perform(get("/api/transactions/categories/{category}/percentiles", category).param("percentiles", "50,99.9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(40))
+                .andExpect(jsonPath("$.percentiles.p50").value(120.0));
+    }
 }
@@ -0,0 +1,139 @@
+package com.example.transactionanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Closed-loop load test of the full-category endpoint, whose responses are large, on Tomcat's
+ * platform-thread pool and on virtual threads. For each concurrency level it prints throughput
+ * and p99 latency, and the highest throughput each mode sustained with p99 within
+ * {@link #P99_BUDGET}. Run with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadLoadTests {
+
+    private static final int[] CONCURRENCY = {50, 200, 800, 2000};
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration RUN = Duration.ofSeconds(15);
+    private static final Duration P99_BUDGET = Duration.ofMillis(500);
+    private static final List<String> CATEGORIES = List.of("Groceries", "Travel", "Rent", "Health", "Fitness");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareThroughputAndTailLatency() throws Exception {
+        Path dataFile = tempDir.resolve("transactions.json");
+        writeTransactions(dataFile, 200_000);
+
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String mode = virtualThreads ? "virtual" : "platform";
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionAnalyzerApplication.class)
+                    .properties("server.port=0",
+                            "transactions.json.path=" + dataFile,
+                            "transactions.reload.poll-interval=0s",
+                            "spring.threads.virtual.enabled=" + virtualThreads)
+                    .run()) {
+                int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                run(port, CONCURRENCY[0], WARMUP);
+                double sustained = 0;
+                for (int concurrency : CONCURRENCY) {
+                    Result result = run(port, concurrency, RUN);
+                    System.out.printf("%-8s concurrency %5d: %8.1f req/s, p99 %6d ms, %d errors%n",
+                            mode, concurrency, result.requestsPerSecond(), result.p99Millis(), result.errors());
+                    assertEquals(0, result.errors());
+                    if (result.p99Millis() <= P99_BUDGET.toMillis()) {
+                        sustained = Math.max(sustained, result.requestsPerSecond());
+                    }
+                }
+                System.out.printf("%-8s max sustained throughput with p99 <= %d ms: %.1f req/s%n",
+                        mode, P99_BUDGET.toMillis(), sustained);
+            }
+        }
+    }
+
+    /**
+     * {@code concurrency} clients on virtual threads, each sending its next request as soon as
+     * the previous one completed, for {@code duration}.
+     */
+    private static Result run(int port, int concurrency, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int offset = c;
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    for (int i = offset; System.nanoTime() < deadline; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                + "/api/transactions/categories/" + CATEGORIES.get(i % CATEGORIES.size()))).build();
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] all = new long[0];
+        for (Future<long[]> latencies : clients) {
+            long[] next = latencies.get();
+            int previous = all.length;
+            all = Arrays.copyOf(all, previous + next.length);
+            System.arraycopy(next, 0, all, previous, next.length);
+        }
+        Arrays.sort(all);
+        long p99 = all.length == 0 ? 0 : all[(int) Math.ceil(all.length * 0.99) - 1];
+        return new Result(all.length / (double) duration.toSeconds(), p99 / 1_000_000, errors.get());
+    }
+
+    private static void writeTransactions(Path file, int count) throws Exception {
+        Random random = new Random(3);
+        LocalDate firstDay = LocalDate.of(2020, 1, 1);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("[");
+            for (int i = 0; i < count; i++) {
+                writer.write(String.format("%s{\"date\":\"%s\",\"vendor\":\"Vendor %d\",\"product\":\"Product %d\",\"amount\":%.2f,\"category\":\"%s\"}",
+                        i == 0 ? "" : ",", firstDay.plusDays(random.nextInt(1_500)), random.nextInt(50),
+                        random.nextInt(20), random.nextInt(50_000) / 100.0, CATEGORIES.get(random.nextInt(CATEGORIES.size()))));
+            }
+            writer.write("]");
+        }
+    }
+
+    private record Result(double requestsPerSecond, long p99Millis, int errors) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.transactionanalyzer.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTests {
+
+    @Test
+    void quantile_SmallInput_ShouldBeExactNearestRank() {
+        QuantileSketch sketch = new QuantileSketch();
+        double[] values = {5, 1, 4, 2, 3, 10, 9, 8, 7, 6};
+        Arrays.stream(values).forEach(sketch::add);
+
+        assertEquals(5.0, sketch.quantile(0.5));
+        assertEquals(9.0, sketch.quantile(0.9));
+        assertEquals(10.0, sketch.quantile(0.99));
+        assertEquals(1.0, sketch.quantile(0.01));
+        assertEquals(10, sketch.count());
+    }
+
+    @Test
+    void quantile_Empty_ShouldBeNaN() {
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+    }
+
+    @Test
+    void quantile_LargeInput_ShouldStayWithinRankError() {
+        Random random = new Random(5);
+        double[] values = new double[200_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 100;
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double fraction : new double[]{0.01, 0.5, 0.9, 0.99}) {
+            int rank = Arrays.binarySearch(values, sketch.quantile(fraction));
+            assertEquals(fraction, (rank + 1) / (double) values.length, 0.02);
+        }
+    }
+
+    @Test
+    void merge_ShouldMatchSketchOfUnion() {
+        Random random = new Random(9);
+        QuantileSketch union = new QuantileSketch();
+        QuantileSketch merged = new QuantileSketch();
+        for (int part = 0; part < 20; part++) {
+            QuantileSketch partSketch = new QuantileSketch();
+            for (int i = 0; i < 5_000; i++) {
+                double value = random.nextDouble() * 1_000;
+                union.add(value);
+                partSketch.add(value);
+            }
+            merged.merge(partSketch);
+        }
+
+        assertEquals(union.count(), merged.count());
+        for (double fraction : new double[]{0.1, 0.5, 0.9}) {
+            assertEquals(union.quantile(fraction), merged.quantile(fraction), 25);
+        }
+    }
+}
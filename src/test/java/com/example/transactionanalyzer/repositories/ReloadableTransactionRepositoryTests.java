@@ -0,0 +1,96 @@
+package com.example.transactionanalyzer.repositories;
+
+import com.example.transactionanalyzer.exceptions.DatasetReloadException;
+import com.example.transactionanalyzer.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReloadableTransactionRepositoryTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reload_ShouldSwapDatasetWithoutAffectingQueriesInFlight() throws Exception {
+        AtomicInteger version = new AtomicInteger(1);
+        try (ReloadableTransactionRepository repository = new ReloadableTransactionRepository(
+                () -> repositoryWith(version.get()), sourceFile(), Duration.ZERO)) {
+            TransactionFilterQuery inFlight = repository.filterQuery().byCategory("Rent");
+
+            version.set(3);
+            repository.reload();
+
+            assertEquals(1, inFlight.count());
+            assertEquals(3, repository.filterQuery().byCategory("Rent").count());
+            assertEquals(1, repository.getReloadCount());
+        }
+    }
+
+    @Test
+    void reload_Failure_ShouldKeepCurrentDataset() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<TransactionRepository> loader = () -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new IllegalStateException("broken file");
+            }
+            return repositoryWith(2);
+        };
+        try (ReloadableTransactionRepository repository = new ReloadableTransactionRepository(loader, sourceFile(), Duration.ZERO)) {
+            DatasetReloadException exception = assertThrows(DatasetReloadException.class, repository::reload);
+
+            assertEquals("Failed to reload transactions: broken file", exception.getMessage());
+            assertEquals(2, repository.filterQuery().count());
+            assertEquals(0, repository.getReloadCount());
+            assertEquals(1, repository.getReloadFailures());
+        }
+    }
+
+    @Test
+    void pollInterval_ShouldReloadOnceFileHasSettled() throws Exception {
+        Path source = sourceFile();
+        AtomicInteger version = new AtomicInteger(1);
+        try (ReloadableTransactionRepository repository = new ReloadableTransactionRepository(
+                () -> repositoryWith(version.get()), source, Duration.ofMillis(20))) {
+            version.set(4);
+            Files.writeString(source, "changed");
+            Files.setLastModifiedTime(source, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (repository.getReloadCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(1, repository.getReloadCount());
+            assertEquals(4, repository.filterQuery().count());
+        }
+    }
+
+    private Path sourceFile() throws Exception {
+        return Files.writeString(tempDir.resolve("transactions.json"), "[]");
+    }
+
+    private static TransactionRepository repositoryWith(int count) {
+        TransactionColumns.Builder columns = new TransactionColumns.Builder();
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setDate(LocalDate.of(2024, 1, 1).plusDays(i));
+            transaction.setVendor("Landlord");
+            transaction.setProduct("Rent Payment");
+            transaction.setAmount(100.0 * (i + 1));
+            transaction.setCategory("Rent");
+            columns.add(transaction);
+        }
+        return new TransactionRepositoryImpl(columns.build());
+    }
+}
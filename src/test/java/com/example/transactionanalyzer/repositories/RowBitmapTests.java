@@ -0,0 +1,49 @@
+package com.example.transactionanalyzer.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowBitmapTests {
+
+    @Test
+    void and_ShouldMatchBitSetForSparseAndDenseChunks() {
+        Random random = new Random(11);
+        for (double density : new double[]{0.001, 0.05, 0.5}) {
+            BitSet first = randomRows(random, 300_000, density);
+            BitSet second = randomRows(random, 300_000, 0.02);
+            RowBitmap intersection = RowBitmap.of(first.stream().toArray()).and(RowBitmap.of(second.stream().toArray()));
+
+            BitSet expected = (BitSet) first.clone();
+            expected.and(second);
+            assertEquals(expected.cardinality(), intersection.cardinality());
+            assertArrayEquals(expected.stream().toArray(), intersection.toArray(0, Integer.MAX_VALUE));
+            assertArrayEquals(expected.stream().filter(row -> row >= 70_000 && row < 140_000).toArray(),
+                    intersection.toArray(70_000, 140_000));
+        }
+    }
+
+    @Test
+    void contains_ShouldFindOnlyAddedRows() {
+        RowBitmap bitmap = RowBitmap.of(new int[]{70_000, 3, 65_536, 65_535});
+
+        assertEquals(4, bitmap.cardinality());
+        assertTrue(bitmap.contains(65_535));
+        assertTrue(bitmap.contains(65_536));
+        assertFalse(bitmap.contains(4));
+        assertFalse(RowBitmap.EMPTY.contains(3));
+    }
+
+    private static BitSet randomRows(Random random, int size, double density) {
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (random.nextDouble() < density) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,639 @@
+package com.example.transactionanalyzer.repositories;
+
+import com.example.transactionanalyzer.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRepositoryImplTests {
+
+    private final List<Transaction> transactions = List.of(
+            transaction("2021-09-23", "Landlord", "Rent Payment", 700.00, "Rent"),
+            transaction("2022-01-02", "Morrisons", "Groceries", 34.55, "Groceries"),
+            transaction("2020-02-16", "PureGym", "Gym Membership", 25.00, "Fitness"),
+            transaction("2021-07-15", "Tesco", "Groceries", 69.38, "groceries"),
+            transaction("2021-02-27", "Morrisons", "Groceries", 18.49, "Groceries"),
+            transaction("2021-07-15", "Sainsbury's", "Groceries", 12.10, "GROCERIES"),
+            transaction("2023-03-01", "Landlord", "Rent Payment", 720.00, "Rent")
+    );
+
+    private final TransactionRepository repository = new TransactionRepositoryImpl(transactions);
+
+    @Test
+    void byCategory_ShouldMatchIgnoringCase() {
+        List<Transaction> result = repository.filterQuery().byCategory("Groceries").getTransactions();
+
+        assertEquals(4, result.size());
+        assertTrue(result.stream().allMatch(t -> t.getCategory().equalsIgnoreCase("groceries")));
+    }
+
+    @Test
+    void byCategory_UnknownCategory_ShouldBeEmpty() {
+        assertTrue(repository.filterQuery().byCategory("Travel").getTransactions().isEmpty());
+    }
+
+    @Test
+    void byDateRange_ShouldBeInclusive() {
+        List<Transaction> result = repository.filterQuery()
+                .byCategory("groceries")
+                .byDateRange(LocalDate.parse("2021-02-27"), LocalDate.parse("2021-07-15"))
+                .getTransactions();
+
+        assertEquals(List.of(12.10, 18.49, 69.38), amounts(result).stream().sorted().toList());
+    }
+
+    @Test
+    void byDateRange_BeforeCategory_ShouldStillFilterByCategory() {
+        List<Transaction> result = repository.filterQuery()
+                .byDateRange(LocalDate.parse("2021-01-01"), LocalDate.parse("2021-12-31"))
+                .byCategory("rent")
+                .getTransactions();
+
+        assertEquals(List.of(700.00), amounts(result));
+    }
+
+    @Test
+    void byDateRange_EmptyRange_ShouldBeEmpty() {
+        assertTrue(repository.filterQuery()
+                .byCategory("groceries")
+                .byDateRange(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-31"))
+                .getTransactions()
+                .isEmpty());
+    }
+
+    @Test
+    void sortByLatest_ShouldKeepOriginalOrderForSameDay() {
+        List<Transaction> result = repository.filterQuery()
+                .byCategory("groceries")
+                .sortByLatest()
+                .getTransactions();
+
+        assertEquals(List.of(34.55, 69.38, 12.10, 18.49), amounts(result));
+    }
+
+    @Test
+    void byVendorAndProduct_ShouldNotModifyRepository() {
+        List<Transaction> result = repository.filterQuery()
+                .byCategory("groceries")
+                .byVendor("morrisons")
+                .byProduct("GROCERIES")
+                .getTransactions();
+
+        assertEquals(List.of(18.49, 34.55), amounts(result));
+        assertEquals(4, repository.filterQuery().byCategory("groceries").getTransactions().size());
+    }
+
+    @Test
+    void aggregates_ShouldMatchMaterializedTransactions() {
+        TransactionFilterQuery query = repository.filterQuery()
+                .byCategory("groceries")
+                .byDateRange(LocalDate.parse("2021-01-01"), LocalDate.parse("2021-12-31"));
+
+        assertEquals(3, query.count());
+        assertEquals(99.97, query.sumAmounts(), 1e-9);
+        assertEquals(69.38, query.maxAmount().orElseThrow());
+        assertEquals(12.10, query.minAmount().orElseThrow());
+    }
+
+    @Test
+    void aggregates_AfterRowFilter_ShouldOnlyCoverMatchingRows() {
+        TransactionFilterQuery query = repository.filterQuery()
+                .byCategory("groceries")
+                .byVendor("Morrisons");
+
+        assertEquals(2, query.count());
+        assertEquals(53.04, query.sumAmounts(), 1e-9);
+        assertEquals(34.55, query.maxAmount().orElseThrow());
+        assertEquals(18.49, query.minAmount().orElseThrow());
+    }
+
+    @Test
+    void aggregates_EmptyResult_ShouldHaveNoExtremes() {
+        TransactionFilterQuery query = repository.filterQuery().byCategory("Travel");
+
+        assertEquals(0, query.count());
+        assertEquals(0.0, query.sumAmounts());
+        assertTrue(query.maxAmount().isEmpty());
+        assertTrue(query.minAmount().isEmpty());
+    }
+
+    @Test
+    void explain_ShouldUseIndexesThenFuseTheRest() {
+        TransactionFilterQuery query = repository.filterQuery()
+                .byVendor("morrisons")
+                .byDateRange(LocalDate.parse("2021-01-01"), LocalDate.parse("2022-12-31"))
+                .byCategory("Groceries")
+                .sortByLatest();
+
+        List<String> operations = query.explain().steps().stream().map(QueryPlan.Step::operation).toList();
+        assertEquals(List.of("category index: groceries", "date range binary search: 2021-01-01..2022-12-31",
+                "vendor index: morrisons", "bitmap intersection: vendor=morrisons",
+                "sort by date skipped: already date-ordered"), operations);
+        assertEquals(2, query.explain().steps().get(3).actualRows());
+        assertEquals(List.of(34.55, 18.49), amounts(query.getTransactions()));
+
+        // Every grocery in range is a "Groceries" product, so its posting saves nothing over a scan.
+        query.byProduct("Groceries").byAmountRange(30.0, 40.0);
+        assertEquals(List.of("category index: groceries", "date range binary search: 2021-01-01..2022-12-31",
+                "amount index: 30.0..40.0", "vendor index: morrisons", "bitmap intersection: amount=30.0..40.0, vendor=morrisons",
+                "fused scan: product=groceries", "sort by date skipped: already date-ordered"),
+                query.explain().steps().stream().map(QueryPlan.Step::operation).toList());
+        assertEquals(List.of(34.55), amounts(query.getTransactions()));
+    }
+
+    @Test
+    void secondaryIndexes_RandomFilters_ShouldMatchNaiveScan() {
+        Random random = new Random(7);
+        List<String> categories = List.of("Rent", "Groceries", "Travel");
+        List<String> vendorNames = List.of("Tesco", "TESCO", "Aldi", "Landlord", "Airbnb");
+        List<Transaction> generated = new ArrayList<>();
+        for (int i = 0; i < 90_000; i++) {
+            LocalDate date = LocalDate.of(2019, 1, 1).plusDays(random.nextInt(1_500));
+            double amount = Math.round(random.nextDouble() * 100_000) / 100.0;
+            generated.add(transaction(date.toString(), vendorNames.get(random.nextInt(5)), "Product " + random.nextInt(30),
+                    amount, categories.get(random.nextInt(3))));
+        }
+        TransactionRepository indexed = new TransactionRepositoryImpl(generated.subList(0, 80_000));
+        indexed.append(generated.subList(80_000, generated.size()));
+
+        for (int i = 0; i < 100; i++) {
+            String category = random.nextBoolean() ? categories.get(random.nextInt(3)) : null;
+            String vendor = random.nextBoolean() ? vendorNames.get(random.nextInt(5)).toLowerCase() : null;
+            String product = random.nextInt(3) == 0 ? "product " + random.nextInt(30) : null;
+            double minAmount = random.nextDouble() * 1_000;
+            double maxAmount = minAmount + random.nextDouble() * 200;
+            List<Double> expected = generated.stream()
+                    .filter(t -> category == null || t.getCategory().equalsIgnoreCase(category))
+                    .filter(t -> vendor == null || t.getVendor().equalsIgnoreCase(vendor))
+                    .filter(t -> product == null || t.getProduct().equalsIgnoreCase(product))
+                    .filter(t -> t.getAmount() >= minAmount && t.getAmount() <= maxAmount)
+                    .map(Transaction::getAmount)
+                    .sorted()
+                    .toList();
+
+            List<Transaction> actual = indexed.filterQuery()
+                    .byCategory(category)
+                    .byVendor(vendor)
+                    .byProduct(product)
+                    .byAmountRange(minAmount, maxAmount)
+                    .getTransactions();
+
+            assertEquals(expected, amounts(actual).stream().sorted().toList());
+        }
+    }
+
+    @Test
+    void partitions_ShouldAnswerLikeOneSegmentAndSkipOtherPeriods() {
+        Random random = new Random(5);
+        List<String> categories = List.of("Rent", "Groceries", "Travel");
+        List<Transaction> generated = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            LocalDate date = LocalDate.of(2019, 1, 1).plusDays(random.nextInt(1_500));
+            double amount = Math.round(random.nextDouble() * 50_000) / 100.0;
+            generated.add(transaction(date.toString(), "Vendor " + (i % 7), "Product", amount, categories.get(random.nextInt(3))));
+        }
+        TransactionRepository single = new TransactionRepositoryImpl(generated);
+        TransactionRepository partitioned = new TransactionRepositoryImpl(
+                new TransactionColumns.Builder().addAll(generated).build(PartitionGranularity.MONTH),
+                new QueryStatistics(), PartitionGranularity.MONTH);
+        List<Transaction> appended = List.of(transaction("2020-06-15", "Vendor 1", "Product", 12.5, "Rent"));
+        single.append(appended);
+        partitioned.append(appended);
+
+        for (String category : categories) {
+            List<Transaction> expectedTransactions = single.filterQuery().byCategory(category).sortByLatest().getTransactions();
+            List<Transaction> actualTransactions = partitioned.filterQuery().byCategory(category).sortByLatest().getTransactions();
+            assertEquals(expectedTransactions.stream().map(Transaction::getDate).toList(),
+                    actualTransactions.stream().map(Transaction::getDate).toList());
+            assertEquals(amounts(expectedTransactions), amounts(actualTransactions));
+            assertEquals(single.monthlyRollup(category, YearMonth.of(2020, 1), YearMonth.of(2020, 12)).keySet(),
+                    partitioned.monthlyRollup(category, YearMonth.of(2020, 1), YearMonth.of(2020, 12)).keySet());
+        }
+        LocalDate start = LocalDate.of(2020, 6, 1);
+        LocalDate end = LocalDate.of(2020, 8, 31);
+        TransactionFilterQuery query = partitioned.filterQuery().byVendor("vendor 3").byDateRange(start, end);
+        TransactionFilterQuery expected = single.filterQuery().byVendor("vendor 3").byDateRange(start, end);
+        assertEquals(expected.count(), query.count());
+        assertEquals(expected.sumAmounts(), query.sumAmounts(), 1e-6);
+        assertEquals(3 + 1, query.explain().segments() - query.explain().prunedSegments());
+    }
+
+    @Test
+    void aggregates_RandomRanges_ShouldMatchNaiveScan() {
+        Random random = new Random(42);
+        List<String> categories = List.of("Rent", "Groceries", "Travel", "Health");
+        List<Transaction> generated = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            LocalDate date = LocalDate.of(2019, 1, 1).plusDays(random.nextInt(1_500));
+            double amount = Math.round(random.nextDouble() * 50_000) / 100.0;
+            generated.add(transaction(date.toString(), "Vendor", "Product", amount, categories.get(random.nextInt(4))));
+        }
+        TransactionRepository generatedRepository = new TransactionRepositoryImpl(generated);
+
+        for (int i = 0; i < 200; i++) {
+            String category = categories.get(random.nextInt(4));
+            LocalDate start = LocalDate.of(2019, 1, 1).plusDays(random.nextInt(1_500));
+            LocalDate end = start.plusDays(random.nextInt(400));
+            DoubleSummaryStatistics expected = generated.stream()
+                    .filter(t -> t.getCategory().equals(category))
+                    .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(end))
+                    .mapToDouble(Transaction::getAmount)
+                    .summaryStatistics();
+
+            TransactionFilterQuery query = generatedRepository.filterQuery().byCategory(category).byDateRange(start, end);
+
+            assertEquals(expected.getCount(), query.count());
+            assertEquals(expected.getSum(), query.sumAmounts(), 1e-6);
+            if (expected.getCount() > 0) {
+                assertEquals(expected.getMax(), query.maxAmount().orElseThrow());
+                assertEquals(expected.getMin(), query.minAmount().orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    void snapshot_ShouldAnswerLikeHeapColumns(@TempDir Path tempDir) throws Exception {
+        Path snapshotFile = tempDir.resolve("transactions.snapshot");
+        TransactionSnapshot snapshot = new TransactionSnapshot(1234L, 5678L, PartitionGranularity.NONE);
+        snapshot.write(new TransactionColumns.Builder().addAll(transactions).build(), snapshotFile);
+
+        TransactionRepository mapped = new TransactionRepositoryImpl(TransactionSnapshot.open(snapshotFile));
+
+        assertTrue(snapshot.isCurrent(snapshotFile));
+        assertFalse(new TransactionSnapshot(1234L, 9999L, PartitionGranularity.NONE).isCurrent(snapshotFile));
+        for (String category : List.of("groceries", "Rent", "Fitness", "Travel")) {
+            TransactionFilterQuery expected = repository.filterQuery().byCategory(category).sortByLatest();
+            TransactionFilterQuery actual = mapped.filterQuery().byCategory(category).sortByLatest();
+            assertEquals(expected.count(), actual.count());
+            assertEquals(expected.sumAmounts(), actual.sumAmounts());
+            assertEquals(expected.maxAmount(), actual.maxAmount());
+            assertEquals(expected.minAmount(), actual.minAmount());
+            for (int i = 0; i < expected.count(); i++) {
+                Transaction expectedTransaction = expected.getTransactions().get(i);
+                Transaction actualTransaction = actual.getTransactions().get(i);
+                assertEquals(expectedTransaction.getDate(), actualTransaction.getDate());
+                assertEquals(expectedTransaction.getVendor(), actualTransaction.getVendor());
+                assertEquals(expectedTransaction.getProduct(), actualTransaction.getProduct());
+                assertEquals(expectedTransaction.getAmount(), actualTransaction.getAmount());
+                assertEquals(expectedTransaction.getCategory(), actualTransaction.getCategory());
+            }
+        }
+    }
+
+    @Test
+    void snapshot_ReopenedUnderAnotherGranularity_ShouldBeStaleAndStillAnswerCorrectly(@TempDir Path tempDir) throws Exception {
+        Path snapshotFile = tempDir.resolve("transactions.snapshot");
+        List<Transaction> spanningMonths = List.of(
+                transaction("2024-01-10", "Tesco", "Bread", 1.0, "Food"),
+                transaction("2024-01-20", "Landlord", "Rent", 500.0, "Rent"),
+                transaction("2024-02-10", "Tesco", "Milk", 2.0, "Food"),
+                transaction("2024-02-20", "Landlord", "Rent", 500.0, "Rent"));
+        new TransactionSnapshot(1234L, 5678L, PartitionGranularity.MONTH)
+                .write(new TransactionColumns.Builder().addAll(spanningMonths).build(PartitionGranularity.MONTH), snapshotFile);
+
+        for (PartitionGranularity granularity : PartitionGranularity.values()) {
+            assertEquals(granularity == PartitionGranularity.MONTH,
+                    new TransactionSnapshot(1234L, 5678L, granularity).isCurrent(snapshotFile));
+            TransactionRepository reopened = new TransactionRepositoryImpl(
+                    TransactionSnapshot.open(snapshotFile), new QueryStatistics(), granularity);
+            TransactionFilterQuery food = reopened.filterQuery().byCategory("food");
+            assertEquals(2, food.count(), granularity.name());
+            assertEquals(3.0, food.sumAmounts(), 1e-9, granularity.name());
+        }
+    }
+
+    @Test
+    void partitioned_RowsCenturiesApart_ShouldOnlySortThePeriodsThatOccur() {
+        List<Transaction> farApart = List.of(
+                transaction("9999-12-31", "Landlord", "Rent", 500.0, "Rent"),
+                transaction("0001-01-01", "Tesco", "Milk", 2.0, "Food"),
+                transaction("0001-01-01", "Landlord", "Rent", 400.0, "rent"));
+        TransactionColumns columns = new TransactionColumns.Builder().addAll(farApart).build(PartitionGranularity.MONTH);
+
+        // Periods ascend; within one, categories keep the order they were first seen in.
+        assertEquals(List.of(400.0, 2.0, 500.0), List.of(columns.amount(0), columns.amount(1), columns.amount(2)));
+        TransactionRepository partitioned = new TransactionRepositoryImpl(columns, new QueryStatistics(), PartitionGranularity.MONTH);
+        assertEquals(List.of(LocalDate.parse("9999-12-31"), LocalDate.parse("0001-01-01")),
+                partitioned.filterQuery().byCategory("RENT").sortByLatest().getTransactions().stream().map(Transaction::getDate).toList());
+        assertEquals(2, partitioned.filterQuery().byCategory("rent").explain().segments());
+    }
+
+    @Test
+    void summarize_ShouldMatchSeparateAggregates() {
+        TransactionRepository appended = new TransactionRepositoryImpl(transactions);
+        appended.append(List.of(transaction("2024-03-15", "Tesco", "Bread", 2.5, "Groceries")));
+        TransactionFilterQuery query = appended.filterQuery().byCategory("groceries");
+
+        AmountStatistics statistics = query.summarize();
+
+        assertEquals(query.count(), statistics.getCount());
+        assertEquals(query.sumAmounts(), statistics.getSum(), 1e-9);
+        assertEquals(query.maxAmount().orElseThrow(), statistics.getMax());
+        assertEquals(query.minAmount().orElseThrow(), statistics.getMin());
+        Map<YearMonth, Double> expectedMonthly = query.getTransactions().stream()
+                .collect(Collectors.groupingBy(t -> YearMonth.from(t.getDate()), TreeMap::new,
+                        Collectors.averagingDouble(Transaction::getAmount)));
+        assertEquals(expectedMonthly.keySet(), statistics.getMonthlyStatistics().keySet());
+        expectedMonthly.forEach((month, average) ->
+                assertEquals(average, statistics.getMonthlyStatistics().get(month).getAverage(), 1e-9));
+    }
+
+    @Test
+    void groupBy_ShouldMatchNaiveGrouping() {
+        Random random = new Random(11);
+        List<String> vendors = List.of("Tesco", "TESCO", "Aldi", "Lidl");
+        List<Transaction> generated = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate date = LocalDate.of(2023, 11, 1).plusDays(random.nextInt(120));
+            generated.add(transaction(date.toString(), vendors.get(random.nextInt(4)), "Product",
+                    random.nextInt(10_000) / 100.0, i % 3 == 0 ? "Rent" : "Groceries"));
+        }
+        TransactionRepository segmented = new TransactionRepositoryImpl(generated.subList(0, 1_500));
+        segmented.append(generated.subList(1_500, 1_800));
+        segmented.append(generated.subList(1_800, 2_000));
+
+        List<TransactionGroup> groups = segmented.filterQuery()
+                .byCategory("groceries")
+                .groupBy(List.of(GroupDimension.VENDOR, GroupDimension.MONTH));
+
+        Map<List<String>, DoubleSummaryStatistics> expected = generated.stream()
+                .filter(t -> t.getCategory().equals("Groceries"))
+                .collect(Collectors.groupingBy(
+                        t -> List.of(t.getVendor().toLowerCase(), YearMonth.from(t.getDate()).toString()),
+                        Collectors.summarizingDouble(Transaction::getAmount)));
+        assertEquals(expected.size(), groups.size());
+        assertEquals(List.of("aldi", "2023-11"), List.of(groups.get(0).key().get(0).toLowerCase(), groups.get(0).key().get(1)));
+        for (TransactionGroup group : groups) {
+            DoubleSummaryStatistics statistics = expected.get(List.of(group.key().get(0).toLowerCase(), group.key().get(1)));
+            assertEquals(statistics.getCount(), group.count());
+            assertEquals(statistics.getSum(), group.sum(), 1e-6);
+            assertEquals(statistics.getMin(), group.min());
+            assertEquals(statistics.getMax(), group.max());
+        }
+    }
+
+    @Test
+    void monthlyRollup_ShouldMatchSummaryAcrossSegments() {
+        TransactionRepository appended = new TransactionRepositoryImpl(transactions);
+        appended.append(List.of(
+                transaction("2021-07-02", "Aldi", "Milk", 1.25, "groceries"),
+                transaction("2021-12-31", "Lidl", "Bread", 2.5, "Groceries")));
+
+        Map<YearMonth, DoubleSummaryStatistics> rollup =
+                appended.monthlyRollup("GROCERIES", YearMonth.of(2021, 1), YearMonth.of(2021, 12));
+
+        AmountStatistics expected = appended.filterQuery()
+                .byCategory("groceries")
+                .byDateRange(LocalDate.parse("2021-01-01"), LocalDate.parse("2021-12-31"))
+                .summarize();
+        assertEquals(expected.getMonthlyStatistics().keySet(), rollup.keySet());
+        expected.getMonthlyStatistics().forEach((month, statistics) -> {
+            assertEquals(statistics.getCount(), rollup.get(month).getCount());
+            assertEquals(statistics.getSum(), rollup.get(month).getSum(), 1e-9);
+            assertEquals(statistics.getMin(), rollup.get(month).getMin());
+            assertEquals(statistics.getMax(), rollup.get(month).getMax());
+        });
+        assertTrue(appended.monthlyRollup("Travel", YearMonth.of(2021, 1), YearMonth.of(2021, 12)).isEmpty());
+    }
+
+    @Test
+    void queryStatistics_ShouldCountOnlyRowsReadOneByOne() {
+        QueryStatistics statistics = new QueryStatistics();
+        TransactionRepository instrumented = new TransactionRepositoryImpl(
+                new TransactionColumns.Builder().addAll(transactions).build(), statistics);
+
+        instrumented.filterQuery().byCategory("groceries").sumAmounts();
+        assertEquals(1, statistics.getQueries());
+        assertEquals(0, statistics.getRowsScanned());
+        assertEquals(4, statistics.getRowsMatched());
+
+        instrumented.filterQuery().byCategory("groceries").byVendor("Tesco").getTransactions();
+        assertEquals(2, statistics.getQueries());
+        // The vendor posting finds the row without reading the category; only the result is read.
+        assertEquals(1, statistics.getRowsScanned());
+        assertEquals(4 + 1, statistics.getRowsMatched());
+    }
+
+    @Test
+    void runningTotals_ShouldMatchQueriesAfterAppends() {
+        TransactionRepository appended = new TransactionRepositoryImpl(transactions);
+        appended.append(List.of(transaction("2021-07-02", "Aldi", "Milk", 1.25, "groceries")));
+        appended.append(List.of(transaction("2024-01-31", "Lidl", "Bread", 250.0, "Groceries")));
+
+        AmountAccumulator totals = appended.runningTotals().category("GROCERIES");
+        TransactionFilterQuery query = appended.filterQuery().byCategory("groceries");
+        assertEquals(query.count(), totals.count());
+        assertEquals(query.sumAmounts(), totals.sum(), 1e-9);
+        assertEquals(query.maxAmount().orElseThrow(), totals.max());
+        assertEquals(query.minAmount().orElseThrow(), totals.min());
+        assertTrue(totals.coversAll(LocalDate.parse("2021-02-27").toEpochDay(), LocalDate.parse("2024-01-31").toEpochDay()));
+        assertFalse(totals.coversAll(LocalDate.parse("2021-02-28").toEpochDay(), LocalDate.parse("2024-01-31").toEpochDay()));
+
+        AmountAccumulator july = appended.runningTotals().month("groceries", YearMonth.of(2021, 7));
+        assertEquals(3, july.count());
+        assertEquals(69.38 + 12.10 + 1.25, july.sum(), 1e-9);
+        assertNull(appended.runningTotals().category("Travel"));
+    }
+
+    @Test
+    void runningTotals_ManySmallAmountsAfterALargeOne_ShouldMatchQuerySum() {
+        List<Transaction> batch = new ArrayList<>();
+        batch.add(transaction("2024-01-01", "Bank", "Deposit", 1e9, "Savings"));
+        for (int i = 0; i < 100_000; i++) {
+            batch.add(transaction("2024-01-02", "Bank", "Round-up", 0.01, "Savings"));
+        }
+        TransactionRepository savings = new TransactionRepositoryImpl(List.of(transaction("2023-12-31", "Bank", "Deposit", 0.01, "Savings")));
+        savings.append(batch);
+
+        double exact = 1_000_001_000.01;
+        assertEquals(exact, savings.runningTotals().category("savings").sum(), 1e-6);
+        assertEquals(exact, savings.filterQuery().byCategory("savings").sumAmounts(), 1e-6);
+    }
+
+    @Test
+    void runningTotals_ConcurrentAdds_ShouldNotLoseUpdates() throws Exception {
+        RunningTotals totals = new RunningTotals();
+        int threads = 8;
+        int perThread = 20_000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    totals.add(i % 2 == 0 ? "Rent" : "rent", LocalDate.of(2024, 1 + i % 12, 1), offset * perThread + i);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        AmountAccumulator rent = totals.category("RENT");
+        long n = (long) threads * perThread;
+        assertEquals(n, rent.count());
+        assertEquals(n * (n - 1) / 2.0, rent.sum());
+        assertEquals(0.0, rent.min());
+        assertEquals(n - 1.0, rent.max());
+        assertEquals(threads * 1_667L, totals.month("rent", YearMonth.of(2024, 3)).count());
+    }
+
+    @Test
+    void groupBy_Week_ShouldUseIsoWeeks() {
+        List<TransactionGroup> groups = repository.filterQuery().groupBy(List.of(GroupDimension.WEEK));
+
+        assertEquals(repository.filterQuery().count(), groups.stream().mapToLong(TransactionGroup::count).sum());
+        assertTrue(groups.stream().allMatch(group -> group.key().get(0).matches("\\d{4}-W\\d{2}")));
+    }
+
+    @Test
+    void amountSketch_ShouldGiveExactPercentilesForSmallRanges() {
+        Random random = new Random(17);
+        List<Transaction> generated = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            LocalDate date = LocalDate.of(2022, 1, 1).plusDays(random.nextInt(730));
+            generated.add(transaction(date.toString(), "Vendor", "Product", random.nextInt(100_000) / 100.0,
+                    i % 2 == 0 ? "Rent" : "rent"));
+        }
+        TransactionRepository segmented = new TransactionRepositoryImpl(generated.subList(0, 2_500));
+        segmented.append(generated.subList(2_500, 3_000));
+
+        for (int i = 0; i < 50; i++) {
+            LocalDate start = LocalDate.of(2022, 1, 1).plusDays(random.nextInt(700));
+            LocalDate end = start.plusDays(random.nextInt(40));
+            double[] amounts = generated.stream()
+                    .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(end))
+                    .mapToDouble(Transaction::getAmount)
+                    .sorted()
+                    .toArray();
+
+            QuantileSketch sketch = segmented.filterQuery().byCategory("RENT").byDateRange(start, end).amountSketch();
+
+            assertEquals(amounts.length, sketch.count());
+            if (amounts.length > 0) {
+                assertEquals(amounts[(int) Math.ceil(0.9 * amounts.length) - 1], sketch.quantile(0.9));
+            }
+        }
+    }
+
+    @Test
+    void topByAmount_ShouldReturnLargestFirst() {
+        TransactionRepository appended = new TransactionRepositoryImpl(transactions);
+        appended.append(List.of(transaction("2024-03-15", "Tesco", "Caviar", 999.0, "Groceries")));
+
+        List<Transaction> top = appended.filterQuery().byCategory("groceries").topByAmount(3);
+
+        List<Double> expected = new ArrayList<>(amounts(appended.filterQuery().byCategory("groceries").getTransactions()));
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(expected.subList(0, Math.min(3, expected.size())), amounts(top));
+        assertEquals(999.0, top.get(0).getAmount());
+    }
+
+    @Test
+    void append_ShouldAnswerLikeSingleLoad() {
+        Random random = new Random(7);
+        List<String> categories = List.of("Rent", "groceries", "Groceries", "Travel");
+        List<Transaction> generated = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            LocalDate date = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(60));
+            generated.add(transaction(date.toString(), "Vendor" + i, "Product", random.nextInt(10_000) / 100.0,
+                    categories.get(random.nextInt(4))));
+        }
+        TransactionRepository appended = new TransactionRepositoryImpl(generated.subList(0, 1_000));
+        for (int from = 1_000; from < generated.size(); ) {
+            int to = Math.min(generated.size(), from + 1 + random.nextInt(200));
+            appended.append(generated.subList(from, to));
+            from = to;
+        }
+        TransactionRepository loaded = new TransactionRepositoryImpl(generated);
+
+        for (String category : List.of("rent", "GROCERIES", "Travel", "Fitness")) {
+            LocalDate start = LocalDate.of(2023, 1, 10);
+            LocalDate end = LocalDate.of(2023, 2, 10);
+            TransactionFilterQuery expected = loaded.filterQuery().byCategory(category).byDateRange(start, end);
+            TransactionFilterQuery actual = appended.filterQuery().byCategory(category).byDateRange(start, end);
+            assertEquals(expected.count(), actual.count());
+            assertEquals(expected.sumAmounts(), actual.sumAmounts(), 1e-6);
+            assertEquals(expected.maxAmount(), actual.maxAmount());
+            assertEquals(expected.minAmount(), actual.minAmount());
+            assertEquals(vendors(loaded.filterQuery().byCategory(category).sortByLatest().getTransactions()),
+                    vendors(appended.filterQuery().byCategory(category).sortByLatest().getTransactions()));
+        }
+    }
+
+    @Test
+    void append_ConcurrentReaders_ShouldSeeWholeBatches() throws Exception {
+        TransactionRepository concurrent = new TransactionRepositoryImpl(transactions);
+        int batches = 500;
+        int batchSize = 4;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < batches; i++) {
+                List<Transaction> batch = new ArrayList<>();
+                for (int j = 0; j < batchSize; j++) {
+                    batch.add(transaction("2024-03-01", "Writer", "Batch", 1.0, "Appended"));
+                }
+                concurrent.append(batch);
+            }
+        });
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    int previous = 0;
+                    while (previous < batches * batchSize) {
+                        TransactionFilterQuery query = concurrent.filterQuery().byCategory("appended");
+                        int count = query.count();
+                        assertEquals(0, count % batchSize);
+                        assertTrue(count >= previous);
+                        assertEquals(count, query.sumAmounts());
+                        assertEquals(count, query.sortByLatest().getTransactions().size());
+                        previous = count;
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join(10_000);
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(transactions.size() + batches * batchSize, concurrent.filterQuery().count());
+    }
+
+    private static List<String> vendors(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getVendor).toList();
+    }
+
+    private static List<Double> amounts(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getAmount).toList();
+    }
+
+    private static Transaction transaction(String date, String vendor, String product, double amount, String category) {
+        Transaction transaction = new Transaction();
+        transaction.setDate(LocalDate.parse(date));
+        transaction.setVendor(vendor);
+        transaction.setProduct(product);
+        transaction.setAmount(amount);
+        transaction.setCategory(category);
+        return transaction;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.transactionanalyzer.services;
+
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.repositories.TransactionRepository;
+import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AggregateCacheTests {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    private final TransactionRepository repository = new TransactionRepositoryImpl(List.of(
+            transaction("2024-02-01", 10.0, "Groceries"),
+            transaction("2024-03-01", 20.0, "groceries")));
+
+    @Test
+    void get_SameKeyWithDifferentCase_ShouldHit() {
+        AggregateCache cache = new AggregateCache(100, Duration.ofMinutes(1), EnumSet.allOf(AggregateCache.Operation.class));
+        TransactionService service = new TransactionService(repository, cache);
+
+        assertEquals(30.0, service.getTotalOutgoingForCategory("Groceries", START, END).getTotalAmount());
+        assertEquals(30.0, service.getTotalOutgoingForCategory("GROCERIES", START, END).getTotalAmount());
+
+        assertEquals("GROCERIES", service.getTotalOutgoingForCategory("GROCERIES", START, END).getCategory());
+        assertEquals(2, cache.nativeCache().stats().hitCount());
+        assertEquals(1, cache.nativeCache().stats().missCount());
+    }
+
+    @Test
+    void get_AfterAppend_ShouldRecompute() {
+        AggregateCache cache = new AggregateCache(100, Duration.ofMinutes(1), EnumSet.allOf(AggregateCache.Operation.class));
+        TransactionService service = new TransactionService(repository, cache);
+
+        assertEquals(20.0, service.getMaxAmountForCategory("groceries", START, END).getMaxAmount());
+        repository.append(List.of(transaction("2024-04-01", 50.0, "Groceries")));
+
+        assertEquals(50.0, service.getMaxAmountForCategory("groceries", START, END).getMaxAmount());
+        assertEquals(0, cache.nativeCache().stats().hitCount());
+    }
+
+    @Test
+    void get_OperationNotCached_ShouldBypassCache() {
+        AggregateCache cache = new AggregateCache(100, Duration.ofMinutes(1), Set.of(AggregateCache.Operation.TOTAL));
+        TransactionService service = new TransactionService(repository, cache);
+
+        service.getMinAmountForCategory("groceries", START, END);
+        service.getMinAmountForCategory("groceries", START, END);
+
+        assertEquals(0, cache.nativeCache().stats().requestCount());
+    }
+
+    private static Transaction transaction(String date, double amount, String category) {
+        Transaction transaction = new Transaction();
+        transaction.setDate(LocalDate.parse(date));
+        transaction.setVendor("Vendor");
+        transaction.setProduct("Product");
+        transaction.setAmount(amount);
+        transaction.setCategory(category);
+        return transaction;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.transactionanalyzer.services;
+
+import com.example.transactionanalyzer.dto.*;
+import com.example.transactionanalyzer.exceptions.InvalidBatchRequestException;
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAggregationServiceTests {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final BatchAggregationService service = new BatchAggregationService(new TransactionRepositoryImpl(List.of(
+            transaction("2024-02-01", 10.0, "Groceries"),
+            transaction("2024-03-01", 20.0, "groceries"),
+            transaction("2024-03-05", 900.0, "Rent"))), pool, 10);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void aggregate_ShouldKeepRequestOrder() {
+        BatchAggregationResultDTO result = service.aggregate(new BatchAggregationRequestDTO(List.of(
+                new AggregationQueryDTO("rent", START, END, AggregationMetric.TOTAL),
+                new AggregationQueryDTO("Groceries", START, END, AggregationMetric.AVERAGE),
+                new AggregationQueryDTO("travel", START, END, AggregationMetric.MAX),
+                new AggregationQueryDTO("travel", START, END, AggregationMetric.COUNT)), false));
+
+        List<AggregationResultDTO> results = result.getResults();
+        assertEquals(900.0, results.get(0).getValue());
+        assertEquals(15.0, results.get(1).getValue());
+        assertEquals(2, results.get(1).getCount());
+        assertNull(results.get(2).getValue());
+        assertEquals(0.0, results.get(3).getValue());
+    }
+
+    @Test
+    void aggregate_GroupByCategory_ShouldEvaluateEveryCategory() {
+        BatchAggregationResultDTO result = service.aggregate(new BatchAggregationRequestDTO(List.of(
+                new AggregationQueryDTO(null, null, null, AggregationMetric.TOTAL)), true));
+
+        assertEquals(List.of("groceries", "rent"), result.getResults().stream().map(AggregationResultDTO::getCategory).toList());
+        assertEquals(List.of(30.0, 900.0), result.getResults().stream().map(AggregationResultDTO::getValue).toList());
+    }
+
+    @Test
+    void aggregate_TooManyQueries_ShouldBeRejected() {
+        List<AggregationQueryDTO> queries = Collections.nCopies(11, new AggregationQueryDTO("rent", START, END, AggregationMetric.TOTAL));
+
+        assertThrows(InvalidBatchRequestException.class,
+                () -> service.aggregate(new BatchAggregationRequestDTO(queries, false)));
+    }
+
+    @Test
+    void aggregate_MissingMetric_ShouldBeRejected() {
+        assertThrows(InvalidBatchRequestException.class, () -> service.aggregate(new BatchAggregationRequestDTO(List.of(
+                new AggregationQueryDTO("rent", START, END, null)), false)));
+    }
+
+    private static Transaction transaction(String date, double amount, String category) {
+        Transaction transaction = new Transaction();
+        transaction.setDate(LocalDate.parse(date));
+        transaction.setVendor("Vendor");
+        transaction.setProduct("Product");
+        transaction.setAmount(amount);
+        transaction.setCategory(category);
+        return transaction;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.transactionanalyzer.services;
+
+import com.example.transactionanalyzer.dto.TransactionPageDTO;
+import com.example.transactionanalyzer.exceptions.InvalidQueryException;
+import com.example.transactionanalyzer.exceptions.InvalidTransactionException;
+import com.example.transactionanalyzer.model.Transaction;
+import com.example.transactionanalyzer.repositories.TransactionRepository;
+import com.example.transactionanalyzer.repositories.TransactionRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionServiceTests {
+
+    @Test
+    void getTransactionPageByCategory_ShouldPageThroughEveryTransactionOnce() {
+        Random random = new Random(3);
+        List<Transaction> generated = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            generated.add(transaction(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(20)), "Vendor" + i, "Groceries"));
+        }
+        TransactionRepository repository = new TransactionRepositoryImpl(generated.subList(0, 300));
+        repository.append(generated.subList(300, 350));
+        repository.append(generated.subList(350, 400));
+        TransactionService service = new TransactionService(repository);
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPageDTO page = service.getTransactionPageByCategory("groceries", cursor, 7);
+            page.getTransactions().forEach(transaction -> paged.add(transaction.getVendor()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> expected = service.getTransactionsByCategory("groceries").getTransactions().stream()
+                .map(Transaction::getVendor)
+                .toList();
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void appendTransactions_NullElement_ShouldBeReportedWithItsIndex() {
+        TransactionRepository repository = new TransactionRepositoryImpl(List.of(transaction(LocalDate.of(2024, 1, 1), "A", "Rent")));
+        TransactionService service = new TransactionService(repository);
+        List<Transaction> batch = new ArrayList<>();
+        batch.add(transaction(LocalDate.of(2024, 1, 2), "B", "Rent"));
+        batch.add(null);
+
+        InvalidTransactionException error = assertThrows(InvalidTransactionException.class, () -> service.appendTransactions(batch));
+
+        assertEquals("Transaction 1 is null.", error.getMessage());
+        assertEquals(1, repository.filterQuery().count());
+    }
+
+    @Test
+    void getTransactionPageByCategory_CursorShouldSurviveAppend() {
+        TransactionRepository repository = new TransactionRepositoryImpl(List.of(
+                transaction(LocalDate.of(2024, 1, 2), "A", "Rent"),
+                transaction(LocalDate.of(2024, 1, 2), "B", "Rent"),
+                transaction(LocalDate.of(2024, 1, 1), "C", "Rent")));
+        TransactionService service = new TransactionService(repository);
+
+        TransactionPageDTO first = service.getTransactionPageByCategory("rent", null, 1);
+        repository.append(List.of(transaction(LocalDate.of(2024, 1, 2), "D", "Rent")));
+        TransactionPageDTO second = service.getTransactionPageByCategory("rent", first.getNextCursor(), 10);
+
+        assertEquals(List.of("A"), first.getTransactions().stream().map(Transaction::getVendor).toList());
+        assertEquals(List.of("B", "D", "C"), second.getTransactions().stream().map(Transaction::getVendor).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getTransactionPageByCategory_InvalidCursor_ShouldBeRejected() {
+        TransactionService service = new TransactionService(new TransactionRepositoryImpl(List.of(
+                transaction(LocalDate.of(2024, 1, 1), "A", "Rent"))));
+
+        assertThrows(InvalidQueryException.class, () -> service.getTransactionPageByCategory("rent", "not-a-cursor", 10));
+        assertThrows(InvalidQueryException.class, () -> service.getTransactionPageByCategory("rent", null, 0));
+    }
+
+    @Test
+    void streamTransactionsByCategory_ShouldMatchFullList() {
+        TransactionRepository repository = new TransactionRepositoryImpl(List.of(
+                transaction(LocalDate.of(2024, 1, 1), "A", "Rent"),
+                transaction(LocalDate.of(2024, 1, 3), "B", "Rent")));
+        repository.append(List.of(transaction(LocalDate.of(2024, 1, 2), "C", "rent")));
+        TransactionService service = new TransactionService(repository);
+
+        List<String> streamed = new ArrayList<>();
+        Iterator<Transaction> transactions = service.streamTransactionsByCategory("Rent");
+        transactions.forEachRemaining(transaction -> streamed.add(transaction.getVendor()));
+
+        assertEquals(List.of("B", "C", "A"), streamed);
+    }
+
+    private static Transaction transaction(LocalDate date, String vendor, String category) {
+        Transaction transaction = new Transaction();
+        transaction.setDate(date);
+        transaction.setVendor(vendor);
+        transaction.setProduct("Product");
+        transaction.setAmount(1.0);
+        transaction.setCategory(category);
+        return transaction;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.transactionanalyzer.utils;
+
+import com.example.transactionanalyzer.model.Transaction;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLoaderTests {
+
+    private static final String TRANSACTIONS_JSON = "src/main/resources/transactions.json";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void loadTransactionsFromJson_ShouldMatchDataBinding() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<Transaction> expected = objectMapper.readValue(new File(TRANSACTIONS_JSON), new TypeReference<>() {});
+
+        List<Transaction> actual = JsonLoader.loadTransactionsFromJson(TRANSACTIONS_JSON);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameTransaction(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    void streamTransactionsFromJson_ShouldShareRepeatedStrings() throws Exception {
+        Path file = tempDir.resolve("transactions.json");
+        Files.writeString(file, """
+                [{"date": "2024-02-01", "vendor": "Tesco", "product": "Milk", "amount": 1.10, "category": "Groceries"},
+                 {"date": "2024-02-02", "vendor": "Tesco", "product": "Bread", "amount": 1.20, "category": "Groceries"},
+                 {"date": "2024-02-03", "vendor": "TESCO", "product": null, "amount": 1.30, "category": "Groceries"}]
+                """);
+        List<Transaction> transactions = new ArrayList<>();
+
+        JsonLoader.streamTransactionsFromJson(file.toString(), transactions::add);
+
+        assertSame(transactions.get(0).getVendor(), transactions.get(1).getVendor());
+        assertSame(transactions.get(0).getCategory(), transactions.get(2).getCategory());
+        assertEquals("TESCO", transactions.get(2).getVendor());
+        assertEquals(List.of("Milk", "Bread"), List.of(transactions.get(0).getProduct(), transactions.get(1).getProduct()));
+        assertNull(transactions.get(2).getProduct());
+    }
+
+    @Test
+    void streamTransactionsFromJson_ShouldSkipUnknownFields() throws Exception {
+        Path file = tempDir.resolve("transactions.json");
+        Files.writeString(file, """
+                [{"date": "2024-02-01", "vendor": "Tesco", "notes": {"tags": ["weekly"]},
+                  "product": "Groceries", "amount": "12.50", "category": "Groceries"}]
+                """);
+        List<Transaction> transactions = new ArrayList<>();
+
+        JsonLoader.streamTransactionsFromJson(file.toString(), transactions::add);
+
+        assertEquals(1, transactions.size());
+        assertEquals("Tesco", transactions.get(0).getVendor());
+        assertEquals(12.50, transactions.get(0).getAmount());
+    }
+
+    @Test
+    void streamTransactionsFromJson_InvalidDate_ShouldFail() throws Exception {
+        Path file = tempDir.resolve("transactions.json");
+        Files.writeString(file, "[{\"date\": \"01/02/2024\", \"amount\": 1.0}]");
+
+        assertThrows(RuntimeException.class, () -> JsonLoader.streamTransactionsFromJson(file.toString(), t -> {}));
+    }
+
+    @Test
+    void streamTransactionsFromJsonInParallel_ShouldMatchSingleThreadedLoad() throws Exception {
+        Path file = tempDir.resolve("generated.json");
+        writeGeneratedTransactions(file, 20_000);
+        List<Transaction> expected = JsonLoader.loadTransactionsFromJson(file.toString());
+
+        List<ChunkSink> chunks = JsonLoader.streamTransactionsFromJsonInParallel(
+                file.toString(), 4, 64 * 1024, ChunkSink::new);
+        List<Transaction> actual = chunks.stream().flatMap(List::stream).toList();
+
+        assertTrue(chunks.size() > 4);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameTransaction(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    void streamTransactionsFromJsonInParallel_EmptyArray_ShouldReturnNoChunks() throws Exception {
+        Path file = tempDir.resolve("empty.json");
+        Files.writeString(file, " [ ] ");
+
+        assertTrue(JsonLoader.streamTransactionsFromJsonInParallel(file.toString(), 4, ChunkSink::new).isEmpty());
+    }
+
+    @Test
+    void streamTransactionsFromJsonInParallel_TruncatedFile_ShouldFailLikeSingleThreadedLoad() throws Exception {
+        Path file = tempDir.resolve("truncated.json");
+        writeGeneratedTransactions(file, 1_000);
+        String complete = Files.readString(file);
+        Files.writeString(file, complete.substring(0, complete.lastIndexOf(']')) + ", {\"date\": \"2024-01-01\", \"ven");
+
+        assertSameFailure(file);
+    }
+
+    @Test
+    void streamTransactionsFromJsonInParallel_NullElement_ShouldFailLikeSingleThreadedLoad() throws Exception {
+        Path file = tempDir.resolve("null-element.json");
+        Files.writeString(file, "[{\"date\": \"2024-01-01\", \"amount\": 1.0, \"category\": \"Rent\"}, null,"
+                + " {\"date\": \"2024-01-02\", \"amount\": 2.0, \"category\": \"Rent\"}]");
+
+        assertSameFailure(file);
+    }
+
+    @Test
+    void loadTransactionsFromJson_MissingDateOrCategory_ShouldNameTheRecord() throws Exception {
+        Path noDate = tempDir.resolve("no-date.json");
+        Files.writeString(noDate, "[{\"date\": \"2024-01-01\", \"amount\": 1.0, \"category\": \"Rent\"},"
+                + " {\"amount\": 2.0, \"category\": \"Rent\"}]");
+        Path noCategory = tempDir.resolve("no-category.json");
+        Files.writeString(noCategory, "[{\"date\": \"2024-01-01\", \"amount\": 1.0, \"category\": \"Rent\"},"
+                + " {\"date\": \"2024-01-02\", \"amount\": 2.0, \"category\": \"Rent\"},"
+                + " {\"date\": \"2024-01-03\", \"amount\": 3.0}]");
+
+        assertEquals("Transaction 1 has no date", rootCauseMessage(
+                () -> JsonLoader.loadTransactionsFromJson(noDate.toString())));
+        assertEquals("Transaction 2 has no category", rootCauseMessage(
+                () -> JsonLoader.loadTransactionsFromJson(noCategory.toString())));
+        // One record per chunk, so the index must count the records of earlier chunks.
+        assertEquals("Transaction 2 has no category", rootCauseMessage(
+                () -> JsonLoader.streamTransactionsFromJsonInParallel(noCategory.toString(), 4, 1, ChunkSink::new)));
+    }
+
+    private static String rootCauseMessage(Executable load) {
+        Throwable failure = assertThrows(RuntimeException.class, load);
+        while (!(failure instanceof JsonProcessingException) && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return ((JsonProcessingException) failure).getOriginalMessage();
+    }
+
+    private static void assertSameFailure(Path file) {
+        RuntimeException sequential = assertThrows(RuntimeException.class,
+                () -> JsonLoader.loadTransactionsFromJson(file.toString()));
+        RuntimeException parallel = assertThrows(RuntimeException.class,
+                () -> JsonLoader.streamTransactionsFromJsonInParallel(file.toString(), 4, 1024, ChunkSink::new));
+        assertEquals(sequential.getMessage(), parallel.getMessage());
+    }
+
+    /**
+     * Timing comparison on a generated multi-million-row file. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void streamTransactionsFromJsonInParallel_Timing() throws Exception {
+        Path file = tempDir.resolve("large.json");
+        writeGeneratedTransactions(file, 3_000_000);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        int singleThreadedRows = JsonLoader.loadTransactionsFromJson(file.toString()).size();
+        long singleThreadedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        int parallelRows = JsonLoader.streamTransactionsFromJsonInParallel(file.toString(), parallelism, ChunkSink::new)
+                .stream().mapToInt(List::size).sum();
+        long parallelMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%,d rows (%,d MB): single-threaded %,d ms, %d threads %,d ms%n",
+                parallelRows, Files.size(file) >> 20, singleThreadedMillis, parallelism, parallelMillis);
+        assertEquals(singleThreadedRows, parallelRows);
+    }
+
+    /**
+     * Writes records whose strings contain quotes, escapes, braces and brackets, so chunk
+     * boundaries cannot be found by looking for structural characters alone.
+     */
+    private static void writeGeneratedTransactions(Path file, int count) throws Exception {
+        String[] vendors = {"Tesco", "Ben's \"Big\" {Shop}", "C:\\Stores\\", "Caf\u00e9 ]}, {[", "Morrisons"};
+        String[] categories = {"Groceries", "Travel", "Rent", "Health"};
+        Random random = new Random(7);
+        try (JsonGenerator generator = new JsonFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartArray();
+            for (int i = 0; i < count; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("date", LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1_500)).toString());
+                generator.writeStringField("vendor", vendors[random.nextInt(vendors.length)]);
+                generator.writeStringField("product", "Product " + random.nextInt(50) + (i % 7 == 0 ? " }," : ""));
+                generator.writeNumberField("amount", Math.round(random.nextDouble() * 50_000) / 100.0);
+                generator.writeStringField("category", categories[random.nextInt(categories.length)]);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static class ChunkSink extends ArrayList<Transaction> implements Consumer<Transaction> {
+        @Override
+        public void accept(Transaction transaction) {
+            add(transaction);
+        }
+    }
+
+    static void assertSameTransaction(Transaction expected, Transaction actual) {
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getVendor(), actual.getVendor());
+        assertEquals(expected.getProduct(), actual.getProduct());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getCategory(), actual.getCategory());
+    }
+}